@@ -1,80 +1,72 @@
-import java.util.List;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.LinkedList;
 
 public class Board
 {
-    private int[][] blocks;
+    private static final int PACKED_MAX_DIMENSION = 4;
+    private static final int MAX_DIMENSION = 16;
+
+    // Blocks are numbered by position i * n + j. Boards up to 4x4 keep them
+    // as 16 nibbles of a long, block at position p in bits 4p..4p+3, so
+    // equals and hashCode are O(1); larger boards keep a byte per block.
+    private final int n;
+    private long packed;
+    private byte[] tiles;
+    private int blank;
+    private int hash;
     private int hamming;
     private int manhattan;
-    private Board parent;
 
-    private class Point
+    public Board(int[][] blocks)           // construct a board from an n-by-n array of blocks
+                                           // (where blocks[i][j] = block in row i, column j)
     {
-        public int i;
-        public int j;
-
-        public Point(int i, int j)
+        n = blocks.length;
+        if (n > MAX_DIMENSION)
         {
-            this.i = i;
-            this.j = j;
+            throw new IllegalArgumentException("Board is too large");
         }
-
-        public boolean equals(Object other)
+        if (n > PACKED_MAX_DIMENSION)
         {
-            if (this == other)
-            {
-                return true;
-            }
-
-            if (other == null)
-            {
-                return false;
-            }
-
-            if (this.getClass() != other.getClass())
+            tiles = new byte[n * n];
+        }
+        blank = -1;
+        for (int i = 0; i != n; ++i)
+        {
+            for (int j = 0; j != n; ++j)
             {
-                return false;
+                int pos = i * n + j;
+                set(pos, blocks[i][j]);
+                if (blocks[i][j] == 0)
+                {
+                    blank = pos;
+                }
             }
-
-            Point obj = (Point) other;
-            return i == obj.i && j == obj.j;
         }
-
-        public Point move(Point dir)
+        if (blank < 0)
         {
-            return new Point(i + dir.i, j + dir.j);
-        }
-    }
-
-    public Board(int[][] blocks)           // construct a board from an n-by-n array of blocks
-                                           // (where blocks[i][j] = block in row i, column j)
-    {
-        this.blocks = blocks.clone();
-        for (int i = 0; i != dimension(); ++i)
-        {
-            this.blocks[i] = blocks[i].clone();
+            throw new IllegalArgumentException("No empty block");
         }
+        hash = 0;
         hamming = -1;
         manhattan = -1;
-        parent = null;
     }
 
     private Board(Board other)
     {
-        blocks = other.blocks.clone();
-        for (int i = 0; i != dimension(); ++i)
-        {
-            blocks[i] = other.blocks[i].clone();
-        }
+        n = other.n;
+        packed = other.packed;
+        tiles = other.tiles == null ? null : other.tiles.clone();
+        blank = other.blank;
+        hash = 0;
         hamming = other.hamming;
         manhattan = other.manhattan;
-        parent = other.parent;
     }
 
     public int dimension()                 // board dimension n
     {
-        return blocks.length;
+        return n;
     }
 
     public int hamming()                   // number of blocks out of place
@@ -85,14 +77,11 @@ public class Board
         }
 
         hamming = 0;
-        for (int i = 0; i != dimension(); ++i)
+        for (int pos = 0; pos != n * n; ++pos)
         {
-            for (int j = 0; j != dimension(); ++j)
+            if (!elemValid(pos))
             {
-                if (!elemValid(i, j))
-                {
-                    ++hamming;
-                }
+                ++hamming;
             }
         }
         return hamming;
@@ -106,17 +95,12 @@ public class Board
         }
 
         manhattan = 0;
-        for (int i = 0; i != dimension(); ++i)
+        for (int pos = 0; pos != n * n; ++pos)
         {
-            for (int j = 0; j != dimension(); ++j)
+            int tile = tileAt(pos);
+            if (tile != 0)
             {
-                if (blocks[i][j] == 0)
-                {
-                    continue;
-                }
-                Point goal = getGoal(i, j);
-                manhattan += Math.abs(goal.i - i);
-                manhattan += Math.abs(goal.j - j);
+                manhattan += distance(tile, pos);
             }
         }
         return manhattan;
@@ -130,21 +114,49 @@ public class Board
     public Board twin()                    // a board that is obtained by exchanging any pair of blocks
     {
         Board other = new Board(this);
-        Point[] points = null;
-        int n = dimension() - 1;
-        if (blocks[0][n] != 0 && blocks[n][0] != 0)
+        int last = n - 1;
+        if (tileAt(last) != 0 && tileAt(last * n) != 0)
         {
-            points = new Point[]{new Point(0, n), new Point(n, 0)};
+            other.swap(last, last * n);
         }
-        else if (blocks[0][0] != 0 && blocks[n][n] != 0)
+        else
         {
-            points = new Point[]{new Point(0, 0), new Point(n, n)};
+            other.swap(0, n * n - 1);
         }
-        assert points != null;
-        other.swap(points[0], points[1]);
         return other;
     }
 
+    public boolean isSolvable()            // can the goal board be reached from this board?
+    {
+        // Moves keep the parity of inversions (odd n) or of inversions plus
+        // the blank's row (even n), so compare it with the goal's. Inversions
+        // are counted right to left with a Fenwick tree over block numbers.
+        int size = n * n;
+        int[] tree = new int[size];
+        long inversions = 0;
+        for (int pos = size - 1; pos >= 0; --pos)
+        {
+            int tile = tileAt(pos);
+            if (tile == 0)
+            {
+                continue;
+            }
+            for (int k = tile - 1; k > 0; k -= k & -k)
+            {
+                inversions += tree[k];
+            }
+            for (int k = tile; k < size; k += k & -k)
+            {
+                ++tree[k];
+            }
+        }
+        if (n % 2 == 1)
+        {
+            return inversions % 2 == 0;
+        }
+        return (inversions + blank / n) % 2 == 1;
+    }
+
     public boolean equals(Object y)        // does this board equal y?
     {
         if (this == y)
@@ -163,35 +175,40 @@ public class Board
         }
 
         Board obj = (Board) y;
-        return Arrays.deepEquals(blocks, obj.blocks);
+        return n == obj.n && packed == obj.packed && Arrays.equals(tiles, obj.tiles);
     }
 
-    public Iterable<Board> neighbors()     // all neighboring boards
+    public int hashCode()
     {
-        Point empty = getEmpty();
-
-        List<Point> moves = new LinkedList<Point>();
-        if (empty.i > 0)
+        if (hash == 0)
         {
-            moves.add(new Point(-1, 0));
+            hash = tiles == null ? Long.hashCode(packed) : Arrays.hashCode(tiles);
+            if (hash == 0)
+            {
+                hash = 1;
+            }
         }
-        if (empty.i < dimension() - 1)
+        return hash;
+    }
+
+    public Iterable<Board> neighbors()     // all neighboring boards
+    {
+        List<Board> neighbors = new ArrayList<Board>(4);
+        if (blank >= n)
         {
-            moves.add(new Point(1, 0));
+            neighbors.add(moveEmpty(blank - n));
         }
-        if (empty.j > 0)
+        if (blank < n * (n - 1))
         {
-            moves.add(new Point(0, -1));
+            neighbors.add(moveEmpty(blank + n));
         }
-        if (empty.j < dimension() - 1)
+        if (blank % n > 0)
         {
-            moves.add(new Point(0, 1));
+            neighbors.add(moveEmpty(blank - 1));
         }
-
-        LinkedList<Board> neighbors = new LinkedList<Board>();
-        for (Point dir : moves)
+        if (blank % n < n - 1)
         {
-            neighbors.add(moveEmpty(empty, dir));
+            neighbors.add(moveEmpty(blank + 1));
         }
         return neighbors;
     }
@@ -205,7 +222,7 @@ public class Board
         {
             for (int j = 0; j != dimension(); ++j)
             {
-                sb.append(Integer.toString(blocks[i][j]));
+                sb.append(Integer.toString(tileAt(i * n + j)));
                 sb.append(" ");
             }
             sb.append(System.lineSeparator());
@@ -213,49 +230,75 @@ public class Board
         return sb.toString();
     }
 
-    private boolean elemValid(int i, int j)
+    int tileAt(int pos)
     {
-        return blocks[i][j] == 0 || blocks[i][j] == i * dimension() + j + 1;
+        if (tiles == null)
+        {
+            return (int) (packed >>> (pos << 2)) & 0xF;
+        }
+        return tiles[pos] & 0xFF;
     }
 
-    private Point getGoal(int i, int j)
+    int blankPosition()
     {
-        return new Point(
-                (blocks[i][j] - 1) / dimension(),
-                (blocks[i][j] - 1) % dimension());
+        return blank;
     }
 
-    private void swap(Point p1, Point p2)
+    private void set(int pos, int tile)
     {
-        int temp = blocks[p1.i][p1.j];
-        blocks[p1.i][p1.j] = blocks[p2.i][p2.j];
-        blocks[p2.i][p2.j] = temp;
-        hamming = -1;
-        manhattan = -1;
+        if (tiles == null)
+        {
+            int shift = pos << 2;
+            packed = (packed & ~(0xFL << shift)) | ((long) tile << shift);
+        }
+        else
+        {
+            tiles[pos] = (byte) tile;
+        }
     }
 
-    private Point getEmpty()
+    private boolean elemValid(int pos)
     {
-        for (int i = 0; i != dimension(); ++i)
-        {
-            for (int j = 0; j != dimension(); ++j)
-            {
-                if (blocks[i][j] == 0)
-                {
-                    return new Point(i, j);
-                }
-            }
-        }
-        throw new IllegalArgumentException("No empty block");
+        int tile = tileAt(pos);
+        return tile == 0 || tile == pos + 1;
     }
 
-    private Board moveEmpty(Point empty, Point dir)
+    // Manhattan distance between position pos and the goal position of tile
+    private int distance(int tile, int pos)
     {
-        assert dir.i + dir.j == 1;
+        int goal = tile - 1;
+        return Math.abs(goal / n - pos / n) + Math.abs(goal % n - pos % n);
+    }
+
+    private void swap(int p1, int p2)
+    {
+        int temp = tileAt(p1);
+        set(p1, tileAt(p2));
+        set(p2, temp);
+        hamming = -1;
+        manhattan = -1;
+    }
 
+    // slides the block at position to into the empty position; only that
+    // block moves, so both heuristics are updated from this board's in O(1)
+    private Board moveEmpty(int to)
+    {
+        int tile = tileAt(to);
         Board other = new Board(this);
-        other.swap(empty, empty.move(dir));
-        other.parent = this;
+        if (tiles == null)
+        {
+            other.packed = (packed & ~(0xFL << (to << 2))) | ((long) tile << (blank << 2));
+        }
+        else
+        {
+            other.tiles[blank] = (byte) tile;
+            other.tiles[to] = 0;
+        }
+        other.blank = to;
+        other.hamming = hamming()
+                - (to == tile - 1 ? 0 : 1)
+                + (blank == tile - 1 ? 0 : 1);
+        other.manhattan = manhattan() - distance(tile, to) + distance(tile, blank);
         return other;
     }
 
@@ -0,0 +1,29 @@
+/**
+ * Admissible estimate of the number of moves left to the goal board,
+ * used by Solver as the h in moves + h.
+ *
+ * A heuristic that can be brought up to date on a single move keeps what
+ * it needs in a long state; Solver stores it per node and calls update
+ * on every child instead of estimating the child from scratch. By default
+ * the state is the estimate itself.
+ */
+public interface Heuristic
+{
+    int estimate(Board board);
+
+    default long state(Board board)
+    {
+        return estimate(board);
+    }
+
+    // state of child, a neighbor of parent whose state is given
+    default long update(long state, Board parent, Board child)
+    {
+        return state(child);
+    }
+
+    default int value(long state)
+    {
+        return (int) state;
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Solves puzzles with each heuristic and keeps, per heuristic, the
+ * number of boards Solver expanded and the time it took, to weigh the
+ * cost of a heuristic against the nodes it saves.
+ */
+public class HeuristicStats
+{
+    private final Map<String, long[]> totals;   // name -> {puzzles, expanded, nanos}
+
+    public HeuristicStats()
+    {
+        totals = new LinkedHashMap<String, long[]>();
+    }
+
+    // solves initial with heuristic and adds the run to the totals for name
+    public Solver solve(String name, Board initial, Heuristic heuristic)
+    {
+        long start = System.nanoTime();
+        Solver solver = new Solver(initial, heuristic);
+        long nanos = System.nanoTime() - start;
+
+        long[] total = totals.get(name);
+        if (total == null)
+        {
+            total = new long[3];
+            totals.put(name, total);
+        }
+        ++total[0];
+        total[1] += solver.expanded();
+        total[2] += nanos;
+        return solver;
+    }
+
+    public long expanded(String name)      // boards expanded over all puzzles solved with name
+    {
+        long[] total = totals.get(name);
+        return total == null ? 0 : total[1];
+    }
+
+    public long nanos(String name)         // time spent solving with name
+    {
+        long[] total = totals.get(name);
+        return total == null ? 0 : total[2];
+    }
+
+    public Iterable<String> names()
+    {
+        return totals.keySet();
+    }
+
+    // java HeuristicStats puzzle1.txt puzzle2.txt ...
+    public static void main(String[] args)
+    {
+        HeuristicStats stats = new HeuristicStats();
+        Map<Integer, WalkingDistance> walking = new LinkedHashMap<Integer, WalkingDistance>();
+        LinearConflict linear = new LinearConflict();
+        for (String file : args)
+        {
+            In in = new In(file);
+            int n = in.readInt();
+            int[][] blocks = new int[n][n];
+            for (int i = 0; i < n; i++)
+                for (int j = 0; j < n; j++)
+                    blocks[i][j] = in.readInt();
+            Board initial = new Board(blocks);
+
+            report(file, "manhattan", stats.solve("manhattan", initial, Board::manhattan));
+            report(file, "linear", stats.solve("linear", initial, linear));
+            if (n <= 4)
+            {
+                WalkingDistance heuristic = walking.get(n);
+                if (heuristic == null)
+                {
+                    heuristic = new WalkingDistance(n);
+                    walking.put(n, heuristic);
+                }
+                report(file, "walking", stats.solve("walking", initial, heuristic));
+            }
+        }
+
+        StdOut.println();
+        for (String name : stats.names())
+        {
+            StdOut.printf("%-10s expanded = %d, ms = %d%n",
+                          name, stats.expanded(name), stats.nanos(name) / 1000000);
+        }
+    }
+
+    private static void report(String file, String name, Solver solver)
+    {
+        StdOut.printf("%s %-10s moves = %d, expanded = %d%n",
+                      file, name, solver.moves(), solver.expanded());
+    }
+}
@@ -0,0 +1,204 @@
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.princeton.cs.algs4.In;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Iterative deepening A* (IDA*) for the slider puzzle.
+ *
+ * Depth-first searches with a growing bound on moves + manhattan, the same
+ * priority Solver uses, work on one array of blocks that is changed in
+ * place and undone on the way back. Memory is the current path only, so
+ * 15-puzzles need a few MB instead of a Board per generated node.
+ */
+public class IDASolver
+{
+    private static final int FOUND = -1;
+
+    private final int n;
+    private final int[] tiles;
+    private final int[][] distance;
+    private final int[] offsets;           // blank moves up, down, left, right
+    private int blank;
+    private int manhattan;
+    private int[] path;
+    private int moves;
+    private long expanded;
+    private List<Board> solution;
+
+    public IDASolver(Board initial)        // find a solution to the initial board (using IDA*)
+    {
+        if (initial == null)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        n = initial.dimension();
+        tiles = new int[n * n];
+        for (int pos = 0; pos != n * n; ++pos)
+        {
+            tiles[pos] = initial.tileAt(pos);
+        }
+        blank = initial.blankPosition();
+        manhattan = initial.manhattan();
+
+        offsets = new int[] {-n, n, -1, 1};
+
+        // distance[tile][pos]: Manhattan distance of tile at pos from its goal
+        distance = new int[n * n][n * n];
+        for (int tile = 1; tile != n * n; ++tile)
+        {
+            for (int pos = 0; pos != n * n; ++pos)
+            {
+                int goal = tile - 1;
+                distance[tile][pos] = Math.abs(goal / n - pos / n) + Math.abs(goal % n - pos % n);
+            }
+        }
+
+        solution = null;
+        moves = -1;
+        if (!initial.isSolvable())
+        {
+            return;
+        }
+
+        path = new int[Math.max(16, manhattan)];
+        int bound = manhattan;
+        while (true)
+        {
+            int next = search(0, bound, -1);
+            if (next == FOUND)
+            {
+                break;
+            }
+            bound = next;
+        }
+
+        solution = new ArrayList<Board>(moves + 1);
+        Board board = initial;
+        solution.add(board);
+        for (int k = 0; k != moves; ++k)
+        {
+            for (Board neighbor : board.neighbors())
+            {
+                if (neighbor.blankPosition() == path[k])
+                {
+                    board = neighbor;
+                    break;
+                }
+            }
+            solution.add(board);
+        }
+    }
+
+    // returns FOUND, or the smallest priority that went over the bound
+    private int search(int depth, int bound, int previous)
+    {
+        int priority = depth + manhattan;
+        if (priority > bound)
+        {
+            return priority;
+        }
+        if (manhattan == 0)
+        {
+            moves = depth;
+            return FOUND;
+        }
+        ++expanded;
+
+        if (depth == path.length)
+        {
+            int[] longer = new int[2 * path.length];
+            System.arraycopy(path, 0, longer, 0, path.length);
+            path = longer;
+        }
+
+        int min = Integer.MAX_VALUE;
+        int from = blank;
+        for (int offset : offsets)
+        {
+            int to = from + offset;
+            if (to == previous || !adjacent(from, to))
+            {
+                continue;
+            }
+
+            int tile = tiles[to];
+            int delta = distance[tile][from] - distance[tile][to];
+            tiles[from] = tile;
+            tiles[to] = 0;
+            blank = to;
+            manhattan += delta;
+            path[depth] = to;
+
+            int next = search(depth + 1, bound, from);
+
+            manhattan -= delta;
+            blank = from;
+            tiles[to] = tile;
+            tiles[from] = 0;
+
+            if (next == FOUND)
+            {
+                return FOUND;
+            }
+            min = Math.min(min, next);
+        }
+        return min;
+    }
+
+    private boolean adjacent(int from, int to)
+    {
+        if (to < 0 || to >= n * n)
+        {
+            return false;
+        }
+        return to / n == from / n || to % n == from % n;
+    }
+
+    public boolean isSolvable()            // is the initial board solvable?
+    {
+        return solution != null;
+    }
+
+    public int moves()                     // min number of moves to solve initial board; -1 if unsolvable
+    {
+        return moves;
+    }
+
+    public Iterable<Board> solution()      // sequence of boards in a shortest solution; null if unsolvable
+    {
+        return solution;
+    }
+
+    public long expanded()                 // number of nodes expanded over all iterations
+    {
+        return expanded;
+    }
+
+    public static void main(String[] args) // solve a slider puzzle (given below)
+    {
+        // create initial board from file
+        In in = new In(args[0]);
+        int n = in.readInt();
+        int[][] blocks = new int[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++)
+                blocks[i][j] = in.readInt();
+        Board initial = new Board(blocks);
+
+        // solve the puzzle
+        IDASolver solver = new IDASolver(initial);
+
+        // print solution to standard output
+        if (!solver.isSolvable())
+            StdOut.println("No solution possible");
+        else {
+            StdOut.println("Minimum number of moves = " + solver.moves());
+            for (Board board : solver.solution())
+                StdOut.println(board);
+        }
+        StdOut.println("Expanded = " + solver.expanded());
+    }
+}
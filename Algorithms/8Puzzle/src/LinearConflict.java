@@ -0,0 +1,100 @@
+/**
+ * Manhattan distance plus linear conflicts.
+ *
+ * Blocks that are in their goal row but in the wrong order among
+ * themselves cannot pass each other in that row; for every block that has
+ * to leave the row so the rest are in order, two moves are added. The
+ * same holds for columns. The fewest blocks to leave a line are those
+ * outside a longest increasing run of goal positions.
+ *
+ * A move changes two lines only, rows for a vertical move and columns for
+ * a horizontal one, so update recounts just those two.
+ */
+public class LinearConflict implements Heuristic
+{
+    public int estimate(Board board)
+    {
+        int n = board.dimension();
+        int conflicts = 0;
+        for (int line = 0; line != n; ++line)
+        {
+            conflicts += rowConflicts(board, line) + columnConflicts(board, line);
+        }
+        return board.manhattan() + 2 * conflicts;
+    }
+
+    public long update(long state, Board parent, Board child)
+    {
+        int n = parent.dimension();
+        int from = parent.blankPosition();
+        int to = child.blankPosition();
+        int conflicts;
+        if (from / n != to / n)
+        {
+            conflicts = rowConflicts(child, from / n) + rowConflicts(child, to / n)
+                    - rowConflicts(parent, from / n) - rowConflicts(parent, to / n);
+        }
+        else
+        {
+            conflicts = columnConflicts(child, from % n) + columnConflicts(child, to % n)
+                    - columnConflicts(parent, from % n) - columnConflicts(parent, to % n);
+        }
+        return state + child.manhattan() - parent.manhattan() + 2 * conflicts;
+    }
+
+    private static int rowConflicts(Board board, int row)
+    {
+        int n = board.dimension();
+        int[] goals = new int[n];
+        int count = 0;
+        for (int col = 0; col != n; ++col)
+        {
+            int tile = board.tileAt(row * n + col);
+            if (tile != 0 && (tile - 1) / n == row)
+            {
+                goals[count++] = (tile - 1) % n;
+            }
+        }
+        return count - longestIncreasing(goals, count);
+    }
+
+    private static int columnConflicts(Board board, int col)
+    {
+        int n = board.dimension();
+        int[] goals = new int[n];
+        int count = 0;
+        for (int row = 0; row != n; ++row)
+        {
+            int tile = board.tileAt(row * n + col);
+            if (tile != 0 && (tile - 1) % n == col)
+            {
+                goals[count++] = (tile - 1) / n;
+            }
+        }
+        return count - longestIncreasing(goals, count);
+    }
+
+    // length of the longest increasing subsequence of the first count values
+    private static int longestIncreasing(int[] values, int count)
+    {
+        if (count < 2)
+        {
+            return count;
+        }
+        int[] length = new int[count];
+        int longest = 0;
+        for (int i = 0; i != count; ++i)
+        {
+            length[i] = 1;
+            for (int j = 0; j != i; ++j)
+            {
+                if (values[j] < values[i] && length[j] + 1 > length[i])
+                {
+                    length[i] = length[j] + 1;
+                }
+            }
+            longest = Math.max(longest, length[i]);
+        }
+        return longest;
+    }
+}
@@ -0,0 +1,450 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Additive disjoint pattern databases.
+ *
+ * The blocks are split into groups. For each group a table holds, for
+ * every placement of the group's blocks, the fewest moves of those blocks
+ * needed to bring them home, found by a backward breadth-first search from
+ * the goal in which moves of other blocks are free. No move is counted in
+ * two tables, so the sum over the groups never overestimates.
+ *
+ * Placements are ranked as partial permutations of the n * n positions and
+ * every entry is a byte. Tables can be written to a file once and then
+ * memory-mapped by later runs instead of being rebuilt.
+ */
+public class PatternDatabase implements Heuristic
+{
+    private static final int MAGIC = 0x50444231;   // "PDB1"
+    private static final int UNSEEN = 0xFF;
+
+    private final int n;
+    private final int[][] groups;
+    private final ByteBuffer[] tables;
+
+    private PatternDatabase(int n, int[][] groups, ByteBuffer[] tables)
+    {
+        this.n = n;
+        this.groups = groups;
+        this.tables = tables;
+    }
+
+    // 6-6-3 split for the 15-puzzle: the 8-block table of a 7-8 split is
+    // 0.5 GB, and the search that builds it tracks 4 GB of states
+    public static int[][] defaultGroups(int n)
+    {
+        if (n == 2)
+        {
+            return new int[][] {{1, 2, 3}};
+        }
+        if (n == 3)
+        {
+            return new int[][] {{1, 2, 3, 4}, {5, 6, 7, 8}};
+        }
+        if (n == 4)
+        {
+            return new int[][] {{1, 5, 6, 9, 10, 13}, {7, 8, 11, 12, 14, 15}, {2, 3, 4}};
+        }
+        throw new IllegalArgumentException("No default groups for dimension " + n);
+    }
+
+    public static PatternDatabase build(int n, int[][] groups)
+    {
+        checkGroups(n, groups);
+        ByteBuffer[] tables = new ByteBuffer[groups.length];
+        for (int g = 0; g != groups.length; ++g)
+        {
+            tables[g] = ByteBuffer.wrap(buildTable(n, groups[g]));
+        }
+        return new PatternDatabase(n, groups, tables);
+    }
+
+    // maps the tables from path if it holds these groups, otherwise builds and writes them
+    public static PatternDatabase load(String path, int n, int[][] groups) throws IOException
+    {
+        checkGroups(n, groups);
+        if (new File(path).isFile())
+        {
+            PatternDatabase pdb = map(path, n, groups);
+            if (pdb != null)
+            {
+                return pdb;
+            }
+        }
+        PatternDatabase pdb = build(n, groups);
+        pdb.write(path);
+        return pdb;
+    }
+
+    public void write(String path) throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(path), 1 << 16)))
+        {
+            out.writeInt(MAGIC);
+            out.writeInt(n);
+            out.writeInt(groups.length);
+            for (int[] group : groups)
+            {
+                out.writeInt(group.length);
+                for (int tile : group)
+                {
+                    out.writeInt(tile);
+                }
+            }
+            byte[] chunk = new byte[1 << 16];
+            for (ByteBuffer table : tables)
+            {
+                ByteBuffer view = table.duplicate();
+                view.clear();
+                while (view.hasRemaining())
+                {
+                    int length = Math.min(chunk.length, view.remaining());
+                    view.get(chunk, 0, length);
+                    out.write(chunk, 0, length);
+                }
+            }
+        }
+    }
+
+    public int estimate(Board board)
+    {
+        if (board.dimension() != n)
+        {
+            throw new IllegalArgumentException("Board has dimension " + board.dimension());
+        }
+        int[] positions = new int[n * n];
+        for (int pos = 0; pos != n * n; ++pos)
+        {
+            positions[board.tileAt(pos)] = pos;
+        }
+        int sum = 0;
+        for (int g = 0; g != groups.length; ++g)
+        {
+            sum += tables[g].get(rank(groups[g], positions)) & 0xFF;
+        }
+        return sum;
+    }
+
+    private int rank(int[] group, int[] positions)
+    {
+        int cells = n * n;
+        long used = 0;
+        int index = 0;
+        for (int i = 0; i != group.length; ++i)
+        {
+            int pos = positions[group[i]];
+            index = index * (cells - i) + pos - Long.bitCount(used & ((1L << pos) - 1));
+            used |= 1L << pos;
+        }
+        return index;
+    }
+
+    private static PatternDatabase map(String path, int n, int[][] groups) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ))
+        {
+            int headerInts = 3;
+            for (int[] group : groups)
+            {
+                headerInts += 1 + group.length;
+            }
+            long header = 4L * headerInts;
+            long size = header;
+            for (int[] group : groups)
+            {
+                size += placements(n * n, group.length);
+            }
+            if (channel.size() != size)
+            {
+                return null;
+            }
+
+            ByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, header);
+            if (head.getInt() != MAGIC || head.getInt() != n || head.getInt() != groups.length)
+            {
+                return null;
+            }
+            for (int[] group : groups)
+            {
+                if (head.getInt() != group.length)
+                {
+                    return null;
+                }
+                for (int tile : group)
+                {
+                    if (head.getInt() != tile)
+                    {
+                        return null;
+                    }
+                }
+            }
+
+            ByteBuffer[] tables = new ByteBuffer[groups.length];
+            long offset = header;
+            for (int g = 0; g != groups.length; ++g)
+            {
+                long length = placements(n * n, groups[g].length);
+                MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                tables[g] = table;
+                offset += length;
+            }
+            return new PatternDatabase(n, groups, tables);
+        }
+    }
+
+    // 0-1 breadth-first search over placements of the group plus the blank
+    private static byte[] buildTable(int n, int[] group)
+    {
+        int cells = n * n;
+        int k = group.length;
+        long states = placements(cells, k + 1);
+        if (states > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("Group of " + k + " blocks is too large");
+        }
+        byte[] distance = new byte[(int) states];
+        Arrays.fill(distance, (byte) UNSEEN);
+
+        int[] positions = new int[k + 1];
+        for (int i = 0; i != k; ++i)
+        {
+            positions[i] = group[i] - 1;
+        }
+        positions[k] = cells - 1;
+        int start = rankState(positions, cells);
+        distance[start] = 0;
+
+        IntQueue current = new IntQueue();
+        IntQueue next = new IntQueue();
+        current.add(start);
+        for (int level = 0; !current.isEmpty(); ++level)
+        {
+            if (level >= UNSEEN - 1)
+            {
+                throw new IllegalStateException("Distances do not fit in a byte");
+            }
+            while (!current.isEmpty())
+            {
+                int state = current.poll();
+                if ((distance[state] & 0xFF) != level)
+                {
+                    continue;
+                }
+                unrankState(state, positions, cells);
+                int blank = positions[k];
+                int[] targets = {blank - n, blank + n, blank - 1, blank + 1};
+                for (int to : targets)
+                {
+                    if (to < 0 || to >= cells || (to / n != blank / n && to % n != blank % n))
+                    {
+                        continue;
+                    }
+                    int moved = -1;
+                    for (int i = 0; i != k; ++i)
+                    {
+                        if (positions[i] == to)
+                        {
+                            moved = i;
+                        }
+                    }
+
+                    if (moved >= 0)
+                    {
+                        positions[moved] = blank;
+                    }
+                    positions[k] = to;
+                    int neighbor = rankState(positions, cells);
+                    positions[k] = blank;
+                    if (moved >= 0)
+                    {
+                        positions[moved] = to;
+                    }
+
+                    int cost = moved >= 0 ? level + 1 : level;
+                    if ((distance[neighbor] & 0xFF) > cost)
+                    {
+                        distance[neighbor] = (byte) cost;
+                        if (moved >= 0)
+                        {
+                            next.add(neighbor);
+                        }
+                        else
+                        {
+                            current.add(neighbor);
+                        }
+                    }
+                }
+            }
+            IntQueue swap = current;
+            current = next;
+            next = swap;
+        }
+
+        // the blank is the last digit of a state's rank, so the placement of the
+        // group is the rank divided by the number of places left for the blank
+        int blanks = cells - k;
+        byte[] table = new byte[(int) placements(cells, k)];
+        Arrays.fill(table, (byte) UNSEEN);
+        for (int state = 0; state != distance.length; ++state)
+        {
+            int index = state / blanks;
+            if ((distance[state] & 0xFF) < (table[index] & 0xFF))
+            {
+                table[index] = distance[state];
+            }
+        }
+        return table;
+    }
+
+    private static int rankState(int[] positions, int cells)
+    {
+        long used = 0;
+        int index = 0;
+        for (int i = 0; i != positions.length; ++i)
+        {
+            int pos = positions[i];
+            index = index * (cells - i) + pos - Long.bitCount(used & ((1L << pos) - 1));
+            used |= 1L << pos;
+        }
+        return index;
+    }
+
+    private static void unrankState(int index, int[] positions, int cells)
+    {
+        int k = positions.length;
+        for (int i = k - 1; i >= 0; --i)
+        {
+            positions[i] = index % (cells - i);
+            index /= cells - i;
+        }
+        // digits count the free positions below; turn them into positions
+        long used = 0;
+        for (int i = 0; i != k; ++i)
+        {
+            int digit = positions[i];
+            int pos = 0;
+            while (true)
+            {
+                if ((used & (1L << pos)) == 0)
+                {
+                    if (digit == 0)
+                    {
+                        break;
+                    }
+                    --digit;
+                }
+                ++pos;
+            }
+            positions[i] = pos;
+            used |= 1L << pos;
+        }
+    }
+
+    // number of ways to place k distinct blocks on the given number of cells
+    private static long placements(int cells, int k)
+    {
+        long count = 1;
+        for (int i = 0; i != k; ++i)
+        {
+            count *= cells - i;
+        }
+        return count;
+    }
+
+    private static void checkGroups(int n, int[][] groups)
+    {
+        if (n < 2 || n * n > 64)
+        {
+            throw new IllegalArgumentException("Dimension must be between 2 and 8");
+        }
+        boolean[] seen = new boolean[n * n];
+        for (int[] group : groups)
+        {
+            for (int tile : group)
+            {
+                if (tile <= 0 || tile >= n * n || seen[tile])
+                {
+                    throw new IllegalArgumentException("Groups must be disjoint blocks 1.." + (n * n - 1));
+                }
+                seen[tile] = true;
+            }
+        }
+    }
+
+    // java PatternDatabase [tables]: checks the 3x3 tables against Manhattan
+    public static void main(String[] args) throws IOException
+    {
+        PatternDatabase pdb = args.length > 0
+                ? load(args[0], 3, defaultGroups(3))
+                : build(3, defaultGroups(3));
+
+        // the tables drop from 12 to 9 in one move on a shortest path of this
+        // board, so Solver finds 17 moves only if it reopens closed boards
+        Board board = new Board(new int[][] {
+                {8, 0, 3},
+                {4, 1, 6},
+                {7, 5, 2}
+        });
+        int manhattan = new Solver(board).moves();
+        int tables = new Solver(board, pdb).moves();
+        System.out.println("Manhattan: " + manhattan + " moves, pattern databases: " + tables + " moves");
+        if (manhattan != 17 || tables != 17)
+        {
+            throw new IllegalStateException("Solver did not find the 17-move solution");
+        }
+    }
+
+    // growable FIFO of ints for the search frontier
+    private static class IntQueue
+    {
+        private int[] items = new int[1024];
+        private int head;
+        private int tail;
+
+        public boolean isEmpty()
+        {
+            return head == tail;
+        }
+
+        public void add(int item)
+        {
+            if (tail == items.length)
+            {
+                if (head > items.length / 2)
+                {
+                    System.arraycopy(items, head, items, 0, tail - head);
+                }
+                else
+                {
+                    items = Arrays.copyOf(items, 2 * items.length);
+                    System.arraycopy(items, head, items, 0, tail - head);
+                }
+                tail -= head;
+                head = 0;
+            }
+            items[tail++] = item;
+        }
+
+        public int poll()
+        {
+            int item = items[head++];
+            if (head == tail)
+            {
+                head = 0;
+                tail = 0;
+            }
+            return item;
+        }
+    }
+}
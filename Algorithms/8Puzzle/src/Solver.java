@@ -1,100 +1,220 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.LinkedList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 
-import edu.princeton.cs.algs4.MinPQ;
 import edu.princeton.cs.algs4.In;
 import edu.princeton.cs.algs4.StdOut;
 
 public class Solver
 {
+    private final Heuristic heuristic;
     private List<Board> solution;
+    private int expanded;
+    private int pruned;
 
-    private class Node implements Comparable<Node>
+    private class Node
     {
-        public Board board;
-        public Node parent;
-        public int manhattan;
-        public int moves;
+        public final Board board;
+        public final Node parent;
+        public final long state;
+        public final int moves;
+        public final int priority;
+        public boolean closed;
 
         public Node(Board board, Node parent)
         {
             this.board = board;
             this.parent = parent;
-            manhattan = board.manhattan();
-            moves = 0;
-            Node n = parent;
-            while (n != null)
+            if (parent == null)
             {
-                ++moves;
-                n = n.parent;
+                state = heuristic.state(board);
+                moves = 0;
             }
+            else
+            {
+                state = heuristic.update(parent.state, parent.board, board);
+                moves = parent.moves + 1;
+            }
+            priority = moves + heuristic.value(state);
         }
+    }
+
+    // Bucket queue of nodes. Priorities and estimates are small integers, so
+    // nodes sit in buckets.get(priority).get(estimate), each a LIFO stack, and
+    // insert and delMin are O(1) amortized. delMin takes the lowest priority and
+    // within it the lowest estimate, the node with the most moves. Stacks are
+    // kept once allocated; lowest[priority] is a cursor below which that
+    // bucket's stacks are empty.
+    private class Frontier
+    {
+        private final List<List<List<Node>>> buckets;
+        private int[] sizes;
+        private int[] lowest;
+        private int size;
+        private int min;                   // no node has a lower priority
 
-        public int priority()
+        public Frontier()
         {
-            return manhattan + moves;
+            buckets = new ArrayList<List<List<Node>>>();
+            sizes = new int[64];
+            lowest = new int[64];
+            size = 0;
+            min = 0;
         }
 
-        public int compareTo(Node other)
+        public boolean isEmpty()
         {
-            int diff = priority() - other.priority();
-            return diff;
+            return size == 0;
         }
-    }
 
-    public Solver(Board initial)           // find a solution to the initial board (using the A* algorithm)
-    {
-        if (initial == null)
+        public void insert(Node node)
         {
-            throw new IllegalArgumentException();
+            int priority = node.priority;
+            int estimate = priority - node.moves;
+            while (buckets.size() <= priority)
+            {
+                buckets.add(new ArrayList<List<Node>>());
+            }
+            if (sizes.length <= priority)
+            {
+                int length = Math.max(2 * sizes.length, priority + 1);
+                sizes = Arrays.copyOf(sizes, length);
+                lowest = Arrays.copyOf(lowest, length);
+            }
+            List<List<Node>> bucket = buckets.get(priority);
+            while (bucket.size() <= estimate)
+            {
+                bucket.add(new ArrayList<Node>());
+            }
+            bucket.get(estimate).add(node);
+
+            if (sizes[priority] == 0 || estimate < lowest[priority])
+            {
+                lowest[priority] = estimate;
+            }
+            ++sizes[priority];
+            if (size == 0 || priority < min)
+            {
+                min = priority;
+            }
+            ++size;
         }
 
-        solution = null;
+        public Node delMin()
+        {
+            while (sizes[min] == 0)
+            {
+                ++min;
+            }
+            List<List<Node>> bucket = buckets.get(min);
+            while (bucket.get(lowest[min]).isEmpty())
+            {
+                ++lowest[min];
+            }
+            List<Node> stack = bucket.get(lowest[min]);
+            Node node = stack.remove(stack.size() - 1);
+            --sizes[min];
+            --size;
+            return node;
+        }
+    }
 
-        MinPQ<Node> nodes = new MinPQ<Node>();
-        nodes.insert(new Node(initial, null));
+    // A* frontier and one map from every generated board to its node with the
+    // fewest moves so far; that node's closed flag marks the board expanded,
+    // so a state is expanded again only when a shorter path to it turns up;
+    // it counts into the Solver's expanded and pruned
+    private class Search
+    {
+        private Frontier nodes;
+        private Map<Board, Node> best;
 
-        MinPQ<Node> nodesTwinned = new MinPQ<Node>();
-        nodesTwinned.insert(new Node(initial.twin(), null));
+        public Search(Board initial)
+        {
+            nodes = new Frontier();
+            best = new HashMap<Board, Node>();
+            Node root = new Node(initial, null);
+            nodes.insert(root);
+            best.put(initial, root);
+        }
 
-        while (!nodes.isEmpty() && !nodesTwinned.isEmpty())
+        // next node to expand, skipping boards already expanded and nodes
+        // superseded by one with fewer moves; null if none left
+        public Node next()
         {
-            Node node = nodes.delMin();
-            if (node.board.isGoal())
+            while (!nodes.isEmpty())
             {
-                solution = new LinkedList<Board>();
-                while (node != null)
+                Node node = nodes.delMin();
+                if (!node.closed && best.get(node.board) == node)
                 {
-                    solution.add(node.board);
-                    node = node.parent;
+                    node.closed = true;
+                    return node;
                 }
-                Collections.reverse(solution);
-                break;
-            }
-
-            Node nodeTwinned = nodesTwinned.delMin();
-            if (nodeTwinned.board.isGoal())
-            {
-                // No solution
-                break;
+                ++pruned;
             }
+            return null;
+        }
 
+        public void expand(Node node)
+        {
+            ++expanded;
             for (Board neighbor : node.board.neighbors())
             {
-                if (node.parent == null || !neighbor.equals(node.parent.board))
+                // a closed board reached with fewer moves is opened again: heuristics
+                // like PatternDatabase can drop by more than one on a move, and then
+                // the first path that closed a board need not be the shortest
+                Node seen = best.get(neighbor);
+                if (seen != null && seen.moves <= node.moves + 1)
                 {
-                    nodes.insert(new Node(neighbor, node));
+                    ++pruned;
+                    continue;
                 }
-
+                Node child = new Node(neighbor, node);
+                best.put(neighbor, child);
+                nodes.insert(child);
             }
-            for (Board neighbor : nodeTwinned.board.neighbors())
+        }
+    }
+
+    public Solver(Board initial)           // find a solution to the initial board (using the A* algorithm)
+    {
+        this(initial, Board::manhattan);
+    }
+
+    public Solver(Board initial, Heuristic heuristic) // same, with any admissible heuristic (closed boards are reopened)
+    {
+        if (initial == null || heuristic == null)
+        {
+            throw new IllegalArgumentException();
+        }
+
+        this.heuristic = heuristic;
+        solution = null;
+        if (!initial.isSolvable())
+        {
+            return;
+        }
+
+        Search search = new Search(initial);
+        Node node;
+        while ((node = search.next()) != null)
+        {
+            if (node.board.isGoal())
             {
-                if (nodeTwinned.parent == null || !neighbor.equals(nodeTwinned.parent.board))
+                solution = new LinkedList<Board>();
+                while (node != null)
                 {
-                    nodesTwinned.insert(new Node(neighbor, nodeTwinned));
+                    solution.add(node.board);
+                    node = node.parent;
                 }
+                Collections.reverse(solution);
+                break;
             }
+            search.expand(node);
         }
     }
 
@@ -117,7 +237,17 @@ public class Solver
         return solution;
     }
 
-    public static void main(String[] args) // solve a slider puzzle (given below)
+    public int expanded()                  // number of boards expanded by the search
+    {
+        return expanded;
+    }
+
+    public int pruned()                    // number of duplicate boards the closed set and move counts pruned
+    {
+        return pruned;
+    }
+
+    public static void main(String[] args) throws IOException // solve a slider puzzle (given below)
     {
         // create initial board from file
         In in = new In(args[0]);
@@ -128,8 +258,12 @@ public class Solver
                 blocks[i][j] = in.readInt();
         Board initial = new Board(blocks);
 
-        // solve the puzzle
-        Solver solver = new Solver(initial);
+        // solve the puzzle, with pattern databases kept in args[1] if given
+        Solver solver;
+        if (args.length > 1)
+            solver = new Solver(initial, PatternDatabase.load(args[1], n, PatternDatabase.defaultGroups(n)));
+        else
+            solver = new Solver(initial);
 
         // print solution to standard output
         if (!solver.isSolvable())
@@ -139,5 +273,6 @@ public class Solver
             for (Board board : solver.solution())
                 StdOut.println(board);
         }
+        StdOut.println("Expanded = " + solver.expanded() + ", pruned = " + solver.pruned());
     }
 }
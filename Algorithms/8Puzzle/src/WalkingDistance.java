@@ -0,0 +1,182 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Walking distance heuristic for boards up to 4x4.
+ *
+ * Vertical moves are counted on a relaxed puzzle that only tracks, for
+ * every row, how many of its blocks belong in each goal row; a move takes
+ * any block from a row next to the blank's row into it. The fewest such
+ * moves to the goal counts are found once for every reachable table by a
+ * breadth-first search. Columns are the same puzzle transposed, so the
+ * estimate is the sum of the two lookups and is at least the Manhattan
+ * distance.
+ *
+ * The state of a board is the index of its row table and of its column
+ * table. A move changes one of them along a transition found by the
+ * search, so update is a single array lookup.
+ */
+public class WalkingDistance implements Heuristic
+{
+    private static final int MAX_DIMENSION = 4;
+    private static final int BITS = 3;
+
+    private final int n;
+    private final Map<Long, Integer> index;
+    private final int[] distance;
+    // next[table][direction * n + goal]: table after the blank moves up (0)
+    // or down (1) and swaps with a block that belongs in row goal; -1 if none
+    private final int[][] next;
+
+    public WalkingDistance(int n)
+    {
+        if (n < 2 || n > MAX_DIMENSION)
+        {
+            throw new IllegalArgumentException("Dimension must be between 2 and " + MAX_DIMENSION);
+        }
+        this.n = n;
+
+        // goal: every row holds its own n blocks, the last row n - 1 and the blank
+        int[][] counts = new int[n][n];
+        for (int row = 0; row != n; ++row)
+        {
+            counts[row][row] = n;
+        }
+        counts[n - 1][n - 1] = n - 1;
+
+        index = new HashMap<Long, Integer>();
+        List<Long> keys = new ArrayList<Long>();
+        List<Integer> distances = new ArrayList<Integer>();
+        List<int[]> transitions = new ArrayList<int[]>();
+        long goal = encode(counts, n - 1);
+        index.put(goal, 0);
+        keys.add(goal);
+        distances.add(0);
+
+        for (int k = 0; k != keys.size(); ++k)
+        {
+            long key = keys.get(k);
+            int blank = decode(key, counts);
+            int[] moves = new int[2 * n];
+            for (int direction = 0; direction != 2; ++direction)
+            {
+                int from = direction == 0 ? blank - 1 : blank + 1;
+                for (int goalRow = 0; goalRow != n; ++goalRow)
+                {
+                    if (from < 0 || from >= n || counts[from][goalRow] == 0)
+                    {
+                        moves[direction * n + goalRow] = -1;
+                        continue;
+                    }
+                    --counts[from][goalRow];
+                    ++counts[blank][goalRow];
+                    long neighbor = encode(counts, from);
+                    ++counts[from][goalRow];
+                    --counts[blank][goalRow];
+
+                    Integer found = index.get(neighbor);
+                    if (found == null)
+                    {
+                        found = keys.size();
+                        index.put(neighbor, found);
+                        keys.add(neighbor);
+                        distances.add(distances.get(k) + 1);
+                    }
+                    moves[direction * n + goalRow] = found;
+                }
+            }
+            transitions.add(moves);
+        }
+
+        distance = new int[keys.size()];
+        next = new int[keys.size()][];
+        for (int k = 0; k != distance.length; ++k)
+        {
+            distance[k] = distances.get(k);
+            next[k] = transitions.get(k);
+        }
+    }
+
+    public int estimate(Board board)
+    {
+        return value(state(board));
+    }
+
+    public long state(Board board)
+    {
+        if (board.dimension() != n)
+        {
+            throw new IllegalArgumentException("Board has dimension " + board.dimension());
+        }
+        int[][] rows = new int[n][n];
+        int[][] columns = new int[n][n];
+        for (int pos = 0; pos != n * n; ++pos)
+        {
+            int tile = board.tileAt(pos);
+            if (tile != 0)
+            {
+                ++rows[pos / n][(tile - 1) / n];
+                ++columns[pos % n][(tile - 1) % n];
+            }
+        }
+        int blank = board.blankPosition();
+        long rowTable = index.get(encode(rows, blank / n));
+        long columnTable = index.get(encode(columns, blank % n));
+        return rowTable << 32 | columnTable;
+    }
+
+    public long update(long state, Board parent, Board child)
+    {
+        int from = parent.blankPosition();
+        int to = child.blankPosition();
+        int tile = child.tileAt(from) - 1;
+        int direction = to < from ? 0 : 1;
+        int rowTable = (int) (state >>> 32);
+        int columnTable = (int) state;
+        if (from / n != to / n)
+        {
+            rowTable = next[rowTable][direction * n + tile / n];
+        }
+        else
+        {
+            columnTable = next[columnTable][direction * n + tile % n];
+        }
+        return (long) rowTable << 32 | columnTable;
+    }
+
+    public int value(long state)
+    {
+        return distance[(int) (state >>> 32)] + distance[(int) state];
+    }
+
+    // counts take BITS bits each, row by row, followed by the blank's row
+    private long encode(int[][] counts, int blank)
+    {
+        long key = 0;
+        for (int row = 0; row != n; ++row)
+        {
+            for (int goalRow = 0; goalRow != n; ++goalRow)
+            {
+                key = key << BITS | counts[row][goalRow];
+            }
+        }
+        return key << BITS | blank;
+    }
+
+    private int decode(long key, int[][] counts)
+    {
+        int mask = (1 << BITS) - 1;
+        int blank = (int) key & mask;
+        for (int row = n - 1; row >= 0; --row)
+        {
+            for (int goalRow = n - 1; goalRow >= 0; --goalRow)
+            {
+                key >>>= BITS;
+                counts[row][goalRow] = (int) key & mask;
+            }
+        }
+        return blank;
+    }
+}
@@ -0,0 +1,24 @@
+import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+
+/**
+ * Adapts algs4's WeightedQuickUnionUF to the UnionFind interface.
+ */
+public class AlgsUnionFind implements UnionFind {
+    private final WeightedQuickUnionUF uf;
+
+    public AlgsUnionFind(int N) {
+        uf = new WeightedQuickUnionUF(N);
+    }
+
+    public int find(int p) {
+        return uf.find(p);
+    }
+
+    public boolean connected(int p, int q) {
+        return uf.connected(p, q);
+    }
+
+    public void union(int p, int q) {
+        uf.union(p, q);
+    }
+}
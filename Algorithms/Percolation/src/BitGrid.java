@@ -0,0 +1,37 @@
+/**
+ * Fixed-size set of site flags packed 64 to a long.
+ */
+public class BitGrid {
+    private final long[] words;
+
+    public BitGrid(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must be >= 0");
+        }
+        words = new long[(size + 63) >>> 6];
+    }
+
+    public boolean get(int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    // sets the flag and tells whether it was clear before
+    public boolean set(int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        if ((words[word] & mask) != 0) {
+            return false;
+        }
+        words[word] |= mask;
+        return true;
+    }
+
+    // number of flags set, counted word by word
+    public int count() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
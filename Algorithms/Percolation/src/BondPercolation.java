@@ -0,0 +1,137 @@
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Bond percolation on the N-by-N square lattice.
+ *
+ * Every site is there from the start and bonds between neighbors get
+ * opened. Bonds have flat indices: 2 * s links site s = (i - 1) * N + (j - 1)
+ * to its right neighbor and 2 * s + 1 to the one below it, so indices of
+ * the last column's right bonds and the last row's down bonds are not
+ * bonds at all. The top and bottom rows are joined to the top and bottom
+ * as in Percolation, tracked with flags on the roots of a single union-find.
+ */
+public class BondPercolation {
+    private static final byte TOP = 1;
+    private static final byte BOTTOM = 2;
+
+    private int N;
+    private int openBondsNumber;
+    private BitGrid bonds;
+    private byte[] status;
+    private boolean percolates;
+    private UnionFind uf;
+
+    public BondPercolation(int N) {
+        this(N, WQUFP::new);
+    }
+
+    public BondPercolation(int N, IntFunction<UnionFind> unionFind) {
+        if (N <= 0) {
+            throw new IllegalArgumentException("N must be > 0");
+        }
+        this.N = N;
+        openBondsNumber = 0;
+        bonds = new BitGrid(2 * N * N);
+        status = new byte[N * N];
+        uf = unionFind.apply(N * N);
+        for (int j = 0; j < N; ++j) {
+            status[j] |= TOP;
+            status[(N - 1) * N + j] |= BOTTOM;
+        }
+        percolates = N == 1;
+    }
+
+    // whether the flat index names an actual bond
+    public boolean isBond(int bond) {
+        if (bond < 0 || bond >= 2 * N * N) {
+            return false;
+        }
+        int site = bond >> 1;
+        if ((bond & 1) == 0) {
+            return site % N != N - 1;
+        }
+        return site / N != N - 1;
+    }
+
+    public void open(int bond) {
+        if (!isBond(bond)) {
+            throw new IndexOutOfBoundsException("not a bond");
+        }
+        if (!bonds.set(bond)) {
+            return;
+        }
+        ++openBondsNumber;
+
+        int site = bond >> 1;
+        int neighbor = (bond & 1) == 0 ? site + 1 : site + N;
+        byte flags = (byte) (status[uf.find(site)] | status[uf.find(neighbor)]);
+        uf.union(site, neighbor);
+        int root = uf.find(site);
+        status[root] = flags;
+        if (flags == (TOP | BOTTOM)) {
+            percolates = true;
+        }
+    }
+
+    // opens the bond between (i, j) and (i, j + 1)
+    public void openRight(int i, int j) {
+        open(2 * getIndex(i, j));
+    }
+
+    // opens the bond between (i, j) and (i + 1, j)
+    public void openDown(int i, int j) {
+        open(2 * getIndex(i, j) + 1);
+    }
+
+    public boolean isOpen(int bond) {
+        if (!isBond(bond)) {
+            throw new IndexOutOfBoundsException("not a bond");
+        }
+        return bonds.get(bond);
+    }
+
+    public boolean isFull(int i, int j) {
+        return (status[uf.find(getIndex(i, j))] & TOP) != 0;
+    }
+
+    public int numberOfOpenBonds() {
+        return openBondsNumber;
+    }
+
+    public boolean percolates() {
+        return percolates;
+    }
+
+    // number of bonds on the N-by-N lattice
+    public static int bonds(int N) {
+        return 2 * N * (N - 1);
+    }
+
+    // number of bonds opened in random order until the system percolates
+    public static int trial(int N, SplittableRandom random) {
+        BondPercolation perc = new BondPercolation(N);
+
+        int[] order = new int[bonds(N)];
+        int count = 0;
+        for (int bond = 0; bond < 2 * N * N; ++bond) {
+            if (perc.isBond(bond)) {
+                order[count++] = bond;
+            }
+        }
+
+        int openedBonds = 0;
+        while (!perc.percolates()) {
+            perc.open(Shuffle.next(order, openedBonds, random));
+            ++openedBonds;
+        }
+        return openedBonds;
+    }
+
+    private int getIndex(int i, int j) {
+        if (i <= 0 || i > N || j <= 0 || j > N) {
+            throw new IndexOutOfBoundsException("i or j is out of bounds");
+        }
+        return --i * N + --j;
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Monte Carlo estimate of the bond percolation threshold, the bond
+ * counterpart of PercolationStats: the fraction of the 2N(N - 1) bonds
+ * open when the system first percolates, over T parallel trials.
+ */
+public class BondPercolationStats {
+
+    private RunningStats stats;
+
+    public BondPercolationStats(int N, int T, long seed) {
+        this(N, T, seed, ForkJoinPool.commonPool());
+    }
+
+    public BondPercolationStats(int N, int T, long seed, ForkJoinPool pool) {
+        if (N <= 1 || T <= 0) {
+            throw new IllegalArgumentException("N must be > 1 and T must be > 0");
+        }
+
+        stats = ParallelTrials.stats(T, seed, pool,
+                                     random -> (double) BondPercolation.trial(N, random) / BondPercolation.bonds(N));
+    }
+
+    public double mean() {
+        return stats.mean();
+    }
+
+    public double stddev() {
+        return stats.stddev();
+    }
+
+    public double confidenceLo() {
+        return stats.mean() - stats.halfWidth();
+    }
+
+    public double confidenceHi() {
+        return stats.mean() + stats.halfWidth();
+    }
+
+    public static void main(String[] args) {
+        BondPercolationStats percStats = new BondPercolationStats(Integer.parseInt(args[0]),
+                                                                  Integer.parseInt(args[1]),
+                                                                  Long.parseLong(args[2]));
+        System.out.println("mean: " + String.valueOf(percStats.mean()));
+        System.out.println("stddev: " + String.valueOf(percStats.stddev()));
+        System.out.println("95% confidence interval: " + String.valueOf(percStats.confidenceLo())
+                           + ", "
+                           + String.valueOf(percStats.confidenceHi()));
+    }
+}
@@ -0,0 +1,167 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Percolation that many threads can open and query at the same time.
+ *
+ * Open flags live in an AtomicLongArray bitmap, and connectivity in two
+ * lock-free union-finds in the Anderson-Woll style: roots are linked with
+ * a CAS by a fixed order on the indices, and finds do path halving with
+ * CAS. The order is a scrambled one rather than plain index order, so grid
+ * neighbours don't build long chains. As in Percolation, the second
+ * union-find has no bottom site, which keeps isFull free of backwash.
+ *
+ * Every union and query is linearizable. An open() becomes visible as a
+ * set of them: a site may already read as open while its unions with the
+ * neighbours are still running.
+ */
+public class ConcurrentPercolation {
+    private final int N;
+    private final AtomicLongArray grid;
+    private final AtomicInteger openSitesNumber;
+    private final AtomicIntegerArray wquf;
+    private final AtomicIntegerArray wqufNoBack;
+
+    public ConcurrentPercolation(int N) {
+        if (N <= 0) {
+            throw new IllegalArgumentException("N must be > 0");
+        }
+        this.N = N;
+        grid = new AtomicLongArray((N * N + 63) >>> 6);
+        openSitesNumber = new AtomicInteger();
+        wquf = new AtomicIntegerArray(N * N + 2);
+        wqufNoBack = new AtomicIntegerArray(N * N + 1);
+        for (int i = 0; i < N * N + 2; ++i) {
+            wquf.set(i, i);
+        }
+        for (int i = 0; i < N * N + 1; ++i) {
+            wqufNoBack.set(i, i);
+        }
+    }
+
+    public void open(int i, int j) {
+        int index = getIndex(i, j);
+        if (!setOpen(index)) {
+            return;
+        }
+        openSitesNumber.incrementAndGet();
+        if (i == 1) {
+            union(wquf, index, N * N);
+            union(wqufNoBack, index, N * N);
+        }
+        if (i == N) {
+            union(wquf, index, N * N + 1);
+        }
+        join(index, i - 1, j);
+        join(index, i + 1, j);
+        join(index, i, j - 1);
+        join(index, i, j + 1);
+    }
+
+    public boolean isOpen(int i, int j) {
+        int index = getIndex(i, j);
+        return (grid.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    public boolean isFull(int i, int j) {
+        return connected(wqufNoBack, getIndex(i, j), N * N);
+    }
+
+    public int numberOfOpenSites() {
+        return openSitesNumber.get();
+    }
+
+    public boolean percolates() {
+        return connected(wquf, N * N, N * N + 1);
+    }
+
+    private void join(int index, int i, int j) {
+        if (i <= 0 || i > N || j <= 0 || j > N) {
+            return;
+        }
+        int neighbor = (i - 1) * N + j - 1;
+        if ((grid.get(neighbor >>> 6) & (1L << neighbor)) != 0) {
+            union(wquf, index, neighbor);
+            union(wqufNoBack, index, neighbor);
+        }
+    }
+
+    // sets the open flag and tells whether this call was the one that set it
+    private boolean setOpen(int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        while (true) {
+            long old = grid.get(word);
+            if ((old & mask) != 0) {
+                return false;
+            }
+            if (grid.compareAndSet(word, old, old | mask)) {
+                return true;
+            }
+        }
+    }
+
+    private static int find(AtomicIntegerArray id, int i) {
+        int parent = id.get(i);
+        while (parent != i) {
+            int grandparent = id.get(parent);
+            if (parent != grandparent) {
+                // path halving; losing the race only means someone else relinked it
+                id.compareAndSet(i, parent, grandparent);
+            }
+            i = grandparent;
+            parent = id.get(i);
+        }
+        return i;
+    }
+
+    private static void union(AtomicIntegerArray id, int p, int q) {
+        while (true) {
+            int i = find(id, p);
+            int j = find(id, q);
+            if (i == j) {
+                return;
+            }
+            if (priority(i) > priority(j)) {
+                int swap = i;
+                i = j;
+                j = swap;
+            }
+            if (id.compareAndSet(i, i, j)) {
+                return;
+            }
+        }
+    }
+
+    // a bijection on int (murmur3's finalizer), so it orders the sites totally
+    private static int priority(int x) {
+        x ^= x >>> 16;
+        x *= 0x85ebca6b;
+        x ^= x >>> 13;
+        x *= 0xc2b2ae35;
+        x ^= x >>> 16;
+        return x;
+    }
+
+    private static boolean connected(AtomicIntegerArray id, int p, int q) {
+        while (true) {
+            int i = find(id, p);
+            int j = find(id, q);
+            if (i == j) {
+                return true;
+            }
+            // i was still a root after j was found, so they were apart at that moment
+            if (id.get(i) == i) {
+                return false;
+            }
+        }
+    }
+
+    private int getIndex(int i, int j) {
+        if (i <= 0 || i > N || j <= 0 || j > N) {
+            throw new IndexOutOfBoundsException("i or j is out of bounds");
+        }
+        return --i * N + --j;
+    }
+}
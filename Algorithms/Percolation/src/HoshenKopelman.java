@@ -0,0 +1,240 @@
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Hoshen-Kopelman cluster labelling, one row at a time.
+ *
+ * Only the labels of the previous row are kept. Every row is labelled
+ * against them with a union-find over at most 2 * width labels; afterwards
+ * the clusters that did not reach the new row are complete and go into the
+ * statistics, and the surviving ones are renumbered 0..K-1 for the next row.
+ * Memory is O(width) whatever the number of rows.
+ */
+public class HoshenKopelman {
+    private static final byte TOP = 1;
+    private static final byte BOTTOM = 2;
+
+    private final int width;
+    private final boolean distributed;
+    private int rows;
+    private boolean finished;
+
+    // labels of the previous row, -1 for blocked sites, and per label data
+    private int[] above;
+    private int aboveLabels;
+    private long[] aboveSize;
+    private byte[] aboveFlags;
+
+    // union-find over the previous row's labels and the new ones of this row
+    private int[] current;
+    private int[] parent;
+    private long[] size;
+    private byte[] flags;
+    private int[] renumber;
+
+    private long clusters;
+    private long largest;
+    private long spanning;
+    private TreeMap<Long, Long> distribution;
+
+    public HoshenKopelman(int width) {
+        this(width, true);
+    }
+
+    // without the size distribution completing a cluster costs O(1),
+    // which matters for huge grids that only need counts or spanning
+    public HoshenKopelman(int width, boolean sizeDistribution) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("width must be > 0");
+        }
+        this.width = width;
+        this.distributed = sizeDistribution;
+        rows = 0;
+        finished = false;
+        above = new int[width];
+        aboveLabels = 0;
+        aboveSize = new long[width];
+        aboveFlags = new byte[width];
+        current = new int[width];
+        parent = new int[2 * width];
+        size = new long[2 * width];
+        flags = new byte[2 * width];
+        renumber = new int[2 * width];
+        distribution = new TreeMap<Long, Long>();
+        for (int j = 0; j < width; ++j) {
+            above[j] = -1;
+        }
+    }
+
+    public void addRow(boolean[] open) {
+        if (finished) {
+            throw new IllegalStateException("labelling is finished");
+        }
+        if (open.length != width) {
+            throw new IllegalArgumentException("row must have width sites");
+        }
+
+        int labels = aboveLabels;
+        for (int l = 0; l < labels; ++l) {
+            parent[l] = l;
+            size[l] = aboveSize[l];
+            flags[l] = aboveFlags[l];
+        }
+
+        for (int j = 0; j < width; ++j) {
+            if (!open[j]) {
+                current[j] = -1;
+                continue;
+            }
+            int left = j > 0 ? current[j - 1] : -1;
+            int up = above[j];
+            int label;
+            if (left < 0 && up < 0) {
+                label = labels++;
+                parent[label] = label;
+                size[label] = 0;
+                flags[label] = rows == 0 ? TOP : 0;
+            }
+            else if (left < 0) {
+                label = find(up);
+            }
+            else if (up < 0) {
+                label = find(left);
+            }
+            else {
+                label = union(left, up);
+            }
+            current[j] = label;
+            ++size[label];
+        }
+
+        // roots still present in this row survive, the other ones are complete
+        for (int l = 0; l < labels; ++l) {
+            renumber[l] = -1;
+        }
+        int survivors = 0;
+        for (int j = 0; j < width; ++j) {
+            if (current[j] < 0) {
+                continue;
+            }
+            int root = find(current[j]);
+            if (renumber[root] < 0) {
+                renumber[root] = survivors;
+                aboveSize[survivors] = size[root];
+                aboveFlags[survivors] = flags[root];
+                ++survivors;
+            }
+            current[j] = renumber[root];
+        }
+        for (int l = 0; l < labels; ++l) {
+            if (parent[l] == l && renumber[l] < 0) {
+                record(size[l], flags[l]);
+            }
+        }
+
+        int[] swap = above;
+        above = current;
+        current = swap;
+        aboveLabels = survivors;
+        ++rows;
+    }
+
+    // completes the clusters that reach the last row
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        for (int l = 0; l < aboveLabels; ++l) {
+            record(aboveSize[l], (byte) (aboveFlags[l] | BOTTOM));
+        }
+        aboveLabels = 0;
+        finished = true;
+    }
+
+    // whether some cluster of the last added row reaches the first row
+    public boolean touchesTop() {
+        for (int l = 0; l < aboveLabels; ++l) {
+            if ((aboveFlags[l] & TOP) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public long clusterCount() {
+        checkFinished();
+        return clusters;
+    }
+
+    public long largestCluster() {
+        checkFinished();
+        return largest;
+    }
+
+    // total size of the clusters that connect the first and the last row
+    public long spanningClusterSize() {
+        checkFinished();
+        return spanning;
+    }
+
+    public boolean percolates() {
+        return spanningClusterSize() > 0;
+    }
+
+    // cluster size -> number of clusters of that size
+    public SortedMap<Long, Long> sizeDistribution() {
+        checkFinished();
+        if (!distributed) {
+            throw new IllegalStateException("size distribution was not requested");
+        }
+        return Collections.unmodifiableSortedMap(distribution);
+    }
+
+    private void record(long clusterSize, byte clusterFlags) {
+        ++clusters;
+        largest = Math.max(largest, clusterSize);
+        if (clusterFlags == (TOP | BOTTOM)) {
+            spanning += clusterSize;
+        }
+        if (distributed) {
+            Long count = distribution.get(clusterSize);
+            distribution.put(clusterSize, count == null ? 1L : count + 1);
+        }
+    }
+
+    private int find(int l) {
+        while (l != parent[l]) {
+            parent[l] = parent[parent[l]];
+            l = parent[l];
+        }
+        return l;
+    }
+
+    private int union(int p, int q) {
+        int i = find(p);
+        int j = find(q);
+        if (i == j) {
+            return i;
+        }
+        if (i > j) {
+            int swap = i;
+            i = j;
+            j = swap;
+        }
+        parent[j] = i;
+        size[i] += size[j];
+        flags[i] |= flags[j];
+        return i;
+    }
+
+    private void checkFinished() {
+        if (!finished) {
+            throw new IllegalStateException("call finish() first");
+        }
+    }
+}
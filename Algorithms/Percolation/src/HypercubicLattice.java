@@ -0,0 +1,60 @@
+/**
+ * L^d sites on a d-dimensional grid, each linked to the 2d sites next to it
+ * along the axes: the square lattice for d = 2, the cubic one for d = 3.
+ *
+ * Sites are numbered with axis 0 varying fastest and the strides L^k are
+ * precomputed. Top and bottom are the two faces across the last axis, so
+ * for d = 2 site (i, j) of Percolation is (i - 1) * L + (j - 1).
+ */
+public class HypercubicLattice implements Lattice {
+    private final int L;
+    private final int sites;
+    private final int[] strides;
+
+    public HypercubicLattice(int L, int d) {
+        if (L <= 0 || d <= 0) {
+            throw new IllegalArgumentException("L and d must be > 0");
+        }
+        this.L = L;
+        strides = new int[d];
+        long stride = 1;
+        for (int k = 0; k < d; ++k) {
+            strides[k] = (int) stride;
+            stride *= L;
+            if (stride > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("L^d must fit in an int");
+            }
+        }
+        sites = (int) stride;
+    }
+
+    public int sites() {
+        return sites;
+    }
+
+    public int maxDegree() {
+        return 2 * strides.length;
+    }
+
+    public int neighbors(int site, int[] out) {
+        int count = 0;
+        for (int stride : strides) {
+            int coordinate = site / stride % L;
+            if (coordinate > 0) {
+                out[count++] = site - stride;
+            }
+            if (coordinate < L - 1) {
+                out[count++] = site + stride;
+            }
+        }
+        return count;
+    }
+
+    public boolean isTop(int site) {
+        return site < strides[strides.length - 1];
+    }
+
+    public boolean isBottom(int site) {
+        return site >= sites - strides[strides.length - 1];
+    }
+}
@@ -0,0 +1,18 @@
+/**
+ * A lattice of sites numbered 0..sites()-1 with a top and a bottom face,
+ * as seen by LatticePercolation.
+ */
+public interface Lattice {
+
+    int sites();
+
+    // largest number of neighbors a site can have
+    int maxDegree();
+
+    // writes the neighbors of site into out and returns how many there are
+    int neighbors(int site, int[] out);
+
+    boolean isTop(int site);
+
+    boolean isBottom(int site);
+}
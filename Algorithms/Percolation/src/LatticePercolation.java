@@ -0,0 +1,121 @@
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Site percolation on any Lattice.
+ *
+ * Sites are flat indices of the lattice. Like Percolation it keeps a
+ * single union-find with top/bottom flags on the roots, and walks the
+ * neighbors the lattice reports instead of four fixed directions.
+ * Percolation stays the hand-unrolled engine for the 2D square case.
+ */
+public class LatticePercolation {
+    private static final byte TOP = 1;
+    private static final byte BOTTOM = 2;
+
+    private final Lattice lattice;
+    private final int[] neighbors;
+    private int openSitesNumber;
+    private BitGrid grid;
+    private byte[] status;
+    private boolean percolates;
+    private UnionFind uf;
+
+    public LatticePercolation(Lattice lattice) {
+        this(lattice, WQUFP::new);
+    }
+
+    public LatticePercolation(Lattice lattice, IntFunction<UnionFind> unionFind) {
+        this.lattice = lattice;
+        neighbors = new int[lattice.maxDegree()];
+        openSitesNumber = 0;
+        grid = new BitGrid(lattice.sites());
+        status = new byte[lattice.sites()];
+        percolates = false;
+        uf = unionFind.apply(lattice.sites());
+    }
+
+    public void open(int site) {
+        checkSite(site);
+        if (!grid.set(site)) {
+            return;
+        }
+        ++openSitesNumber;
+
+        byte flags = 0;
+        if (lattice.isTop(site)) {
+            flags |= TOP;
+        }
+        if (lattice.isBottom(site)) {
+            flags |= BOTTOM;
+        }
+        int degree = lattice.neighbors(site, neighbors);
+        for (int k = 0; k < degree; ++k) {
+            int neighbor = neighbors[k];
+            if (grid.get(neighbor)) {
+                flags |= status[uf.find(neighbor)];
+                uf.union(site, neighbor);
+            }
+        }
+
+        int root = uf.find(site);
+        status[root] |= flags;
+        if (status[root] == (TOP | BOTTOM)) {
+            percolates = true;
+        }
+    }
+
+    public boolean isOpen(int site) {
+        checkSite(site);
+        return grid.get(site);
+    }
+
+    public boolean isFull(int site) {
+        checkSite(site);
+        return grid.get(site) && (status[uf.find(site)] & TOP) != 0;
+    }
+
+    public int numberOfOpenSites() {
+        return openSitesNumber;
+    }
+
+    public boolean percolates() {
+        return percolates;
+    }
+
+    // number of sites opened in random order until the lattice percolates
+    public static int trial(Lattice lattice, SplittableRandom random) {
+        LatticePercolation perc = new LatticePercolation(lattice);
+
+        int[] sites = Shuffle.identity(lattice.sites());
+        int openedSites = 0;
+        while (!perc.percolates()) {
+            perc.open(Shuffle.next(sites, openedSites, random));
+            ++openedSites;
+        }
+        return openedSites;
+    }
+
+    private void checkSite(int site) {
+        if (site < 0 || site >= lattice.sites()) {
+            throw new IndexOutOfBoundsException("site is out of bounds");
+        }
+    }
+
+    // java LatticePercolation square|cubic|triangular L seed
+    public static void main(String[] args) {
+        int L = Integer.parseInt(args[1]);
+        Lattice lattice;
+        if (args[0].equals("cubic")) {
+            lattice = new HypercubicLattice(L, 3);
+        }
+        else if (args[0].equals("triangular")) {
+            lattice = new TriangularLattice(L);
+        }
+        else {
+            lattice = new HypercubicLattice(L, 2);
+        }
+        int openedSites = trial(lattice, new SplittableRandom(Long.parseLong(args[2])));
+        System.out.println("threshold: " + String.valueOf((double) openedSites / lattice.sites()));
+    }
+}
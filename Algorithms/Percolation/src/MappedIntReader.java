@@ -0,0 +1,91 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads whitespace separated ASCII integers from a memory-mapped file.
+ *
+ * Digits are accumulated straight from the mapped bytes, so no String or
+ * regex work happens per token. Files larger than one window are mapped
+ * piece by piece; a number may straddle two windows.
+ */
+public class MappedIntReader implements Closeable {
+    private static final long WINDOW = 1L << 26;
+
+    private final FileChannel channel;
+    private final long size;
+    private long offset;
+    private MappedByteBuffer buffer;
+
+    public MappedIntReader(String path) throws IOException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ);
+        size = channel.size();
+        offset = 0;
+        buffer = null;
+    }
+
+    public boolean hasNext() throws IOException {
+        int c = peek();
+        while (c != -1 && c <= ' ') {
+            buffer.get();
+            c = peek();
+        }
+        return c != -1;
+    }
+
+    public int nextInt() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("end of file");
+        }
+        boolean negative = false;
+        if (peek() == '-') {
+            negative = true;
+            buffer.get();
+        }
+        long value = 0;
+        int digits = 0;
+        int c = peek();
+        while (c >= '0' && c <= '9') {
+            buffer.get();
+            value = value * 10 + (c - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new InputMismatchException("integer overflow");
+            }
+            ++digits;
+            c = peek();
+        }
+        if (digits == 0 || (c != -1 && c > ' ')) {
+            throw new InputMismatchException("not an integer");
+        }
+        if (negative) {
+            value = -value;
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw new InputMismatchException("integer overflow");
+        }
+        return (int) value;
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // next byte without consuming it, or -1 at the end of the file
+    private int peek() throws IOException {
+        if (buffer == null || !buffer.hasRemaining()) {
+            if (buffer != null) {
+                offset += buffer.capacity();
+            }
+            if (offset >= size) {
+                return -1;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW, size - offset));
+        }
+        return buffer.get(buffer.position()) & 0xff;
+    }
+}
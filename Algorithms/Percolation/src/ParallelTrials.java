@@ -0,0 +1,114 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Runs independent Monte Carlo trials on a ForkJoinPool.
+ *
+ * The range of trials is split recursively and every split also splits the
+ * random generator, so trial t always sees the same stream for a given seed,
+ * no matter how many workers the pool has or how the tasks get scheduled.
+ */
+public class ParallelTrials {
+
+    private static final int SEQUENTIAL_THRESHOLD = 4;
+
+    private ParallelTrials() {
+    }
+
+    public static int[] run(int T, long seed, ForkJoinPool pool, ToIntFunction<SplittableRandom> trial) {
+        if (T <= 0) {
+            throw new IllegalArgumentException("T must be > 0");
+        }
+        if (pool == null || trial == null) {
+            throw new NullPointerException("pool and trial must not be null");
+        }
+        int[] results = new int[T];
+        pool.invoke(new TrialTask(results, 0, T, new SplittableRandom(seed), trial));
+        return results;
+    }
+
+    // same trials, but every leaf keeps RunningStats of its samples and the
+    // halves are merged on the way up, so no array of T results is kept;
+    // the merge order follows the split, so the result is the same on any pool
+    public static RunningStats stats(int T, long seed, ForkJoinPool pool,
+                                     ToDoubleFunction<SplittableRandom> trial) {
+        if (T <= 0) {
+            throw new IllegalArgumentException("T must be > 0");
+        }
+        if (pool == null || trial == null) {
+            throw new NullPointerException("pool and trial must not be null");
+        }
+        return pool.invoke(new StatsTask(0, T, new SplittableRandom(seed), trial));
+    }
+
+    private static class TrialTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] results;
+        private final int lo;
+        private final int hi;
+        private final SplittableRandom random;
+        private final ToIntFunction<SplittableRandom> trial;
+
+        TrialTask(int[] results, int lo, int hi, SplittableRandom random,
+                  ToIntFunction<SplittableRandom> trial) {
+            this.results = results;
+            this.lo = lo;
+            this.hi = hi;
+            this.random = random;
+            this.trial = trial;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= SEQUENTIAL_THRESHOLD) {
+                for (int t = lo; t < hi; ++t) {
+                    results[t] = trial.applyAsInt(random);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            TrialTask left = new TrialTask(results, lo, mid, random.split(), trial);
+            TrialTask right = new TrialTask(results, mid, hi, random, trial);
+            invokeAll(left, right);
+        }
+    }
+
+    private static class StatsTask extends RecursiveTask<RunningStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo;
+        private final int hi;
+        private final SplittableRandom random;
+        private final ToDoubleFunction<SplittableRandom> trial;
+
+        StatsTask(int lo, int hi, SplittableRandom random, ToDoubleFunction<SplittableRandom> trial) {
+            this.lo = lo;
+            this.hi = hi;
+            this.random = random;
+            this.trial = trial;
+        }
+
+        @Override
+        protected RunningStats compute() {
+            if (hi - lo <= SEQUENTIAL_THRESHOLD) {
+                RunningStats stats = new RunningStats();
+                for (int t = lo; t < hi; ++t) {
+                    stats.add(trial.applyAsDouble(random));
+                }
+                return stats;
+            }
+            int mid = (lo + hi) >>> 1;
+            StatsTask left = new StatsTask(lo, mid, random.split(), trial);
+            StatsTask right = new StatsTask(mid, hi, random, trial);
+            invokeAll(left, right);
+            RunningStats stats = left.join();
+            stats.merge(right.join());
+            return stats;
+        }
+    }
+}
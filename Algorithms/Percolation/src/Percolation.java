@@ -6,72 +6,196 @@
 //import java.io.FileNotFoundException;
 //import java.util.Scanner;
 
-import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+import java.util.function.IntFunction;
 
 public class Percolation {
+    private static final byte TOP = 1;
+    private static final byte BOTTOM = 2;
+
     private int N;
     private int openSitesNumber;
-    private int[] grid;
-    private WeightedQuickUnionUF wquf;
-    private WeightedQuickUnionUF wqufNoBack;
+    private BitGrid grid;
+    // flags of the components touching the top or the bottom row, kept at
+    // their roots in place of virtual top and bottom sites, so there is no
+    // backwash and percolates is a field instead of a pair of finds
+    private byte[] status;
+    private boolean percolates;
+    private UnionFind uf;
 
     public Percolation(int N) {
+        this(N, WQUFP::new);
+    }
+
+    // unionFind creates the union-find for a given number of sites,
+    // e.g. AlgsUnionFind::new to compare against algs4's implementation
+    public Percolation(int N, IntFunction<UnionFind> unionFind) {
         if (N <= 0) {
             throw new IllegalArgumentException("N must be > 0");
         }
         this.N = N;
         openSitesNumber = 0;
-        grid = new int[N * N];
-        wquf = new WeightedQuickUnionUF(N * N + 2);
-        wqufNoBack = new WeightedQuickUnionUF(N * N + 1);
+        grid = new BitGrid(N * N);
+        status = new byte[N * N];
+        percolates = false;
+        uf = unionFind.apply(N * N);
     }
 
     public void open(int i, int j) {
-        int index = getIndex(i, j);
-        if (grid[index] == 1) {
+        openSite(getIndex(i, j), i, j);
+    }
+
+    // opens the flat sites ((i - 1) * N + (j - 1)) of order one after another
+    // until the system percolates and returns the position in order of the site
+    // that made it percolate, or -1 if all of order was opened without it;
+    // the system must not percolate yet
+    public int openAll(int[] order) {
+        return openAll(order, 0, order.length);
+    }
+
+    // same for the sites order[from..to - 1]; the position returned is in order
+    public int openAll(int[] order, int from, int to) {
+        if (percolates) {
+            throw new IllegalStateException("system already percolates");
+        }
+        for (int k = from; k < to; ++k) {
+            int index = order[k];
+            if (index < 0 || index >= N * N) {
+                throw new IndexOutOfBoundsException("site index is out of bounds");
+            }
+            openSite(index, index / N + 1, index % N + 1);
+            if (percolates) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    // same answer as new Percolation(N).openAll(order), found by bisecting on the
+    // length of the prefix; every probe builds a fresh system and replays a prefix,
+    // O(N^2 log N) in all, so it is slower than openAll and serves to check it
+    public static int percolationStep(int N, int[] order) {
+        int lo = 0;
+        int hi = order.length;
+        if (!openPrefix(N, order, hi).percolates()) {
+            return -1;
+        }
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (openPrefix(N, order, mid + 1).percolates()) {
+                hi = mid;
+            }
+            else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    private static Percolation openPrefix(int N, int[] order, int length) {
+        Percolation perc = new Percolation(N);
+        for (int k = 0; k < length; ++k) {
+            int index = order[k];
+            if (index < 0 || index >= N * N) {
+                throw new IndexOutOfBoundsException("site index is out of bounds");
+            }
+            perc.openSite(index, index / N + 1, index % N + 1);
+        }
+        return perc;
+    }
+
+    // writes 0 for blocked, 1 for open and 2 for full sites in flat order;
+    // each open site costs one find
+    void fillStates(byte[] states) {
+        if (states.length != N * N) {
+            throw new IllegalArgumentException("states must have N * N entries");
+        }
+        for (int index = 0; index < N * N; ++index) {
+            if (!grid.get(index)) {
+                states[index] = 0;
+            }
+            else if ((status[uf.find(index)] & TOP) != 0) {
+                states[index] = 2;
+            }
+            else {
+                states[index] = 1;
+            }
+        }
+    }
+
+    // cluster statistics of the open sites, labelled row by row
+    public HoshenKopelman clusters() {
+        HoshenKopelman hk = new HoshenKopelman(N);
+        boolean[] row = new boolean[N];
+        for (int i = 0; i < N; ++i) {
+            for (int j = 0; j < N; ++j) {
+                row[j] = grid.get(i * N + j);
+            }
+            hk.addRow(row);
+        }
+        hk.finish();
+        return hk;
+    }
+
+    private void openSite(int index, int i, int j) {
+        if (!grid.set(index)) {
             return;
         }
         ++openSitesNumber;
-        grid[index] = 1;
+
+        byte flags = 0;
         if (i == 1) {
-            wquf.union(index, N * N);
-            wqufNoBack.union(index, N * N);
+            flags |= TOP;
         }
         if (i == N) {
-            wquf.union(index, N * N + 1);
+            flags |= BOTTOM;
         }
         if (testOpen(i - 1, j)) {
-            wquf.union(index, getIndex(i - 1, j));
-            wqufNoBack.union(index, getIndex(i - 1, j));
+            flags |= join(index, getIndex(i - 1, j));
         }
         if (testOpen(i + 1, j)) {
-            wquf.union(index, getIndex(i + 1, j));
-            wqufNoBack.union(index, getIndex(i + 1, j));
+            flags |= join(index, getIndex(i + 1, j));
         }
         if (testOpen(i, j - 1)) {
-            wquf.union(index, getIndex(i, j - 1));
-            wqufNoBack.union(index, getIndex(i, j - 1));
+            flags |= join(index, getIndex(i, j - 1));
         }
         if (testOpen(i, j + 1)) {
-            wquf.union(index, getIndex(i, j + 1));
-            wqufNoBack.union(index, getIndex(i, j + 1));
+            flags |= join(index, getIndex(i, j + 1));
+        }
+
+        int root = uf.find(index);
+        status[root] |= flags;
+        if (status[root] == (TOP | BOTTOM)) {
+            percolates = true;
         }
     }
 
+    // unions site index with neighbor and returns the flags neighbor's component had
+    private byte join(int index, int neighbor) {
+        byte flags = status[uf.find(neighbor)];
+        uf.union(index, neighbor);
+        return flags;
+    }
+
     public boolean isOpen(int i, int j) {
-        return grid[getIndex(i, j)] == 1;
+        return grid.get(getIndex(i, j));
     }
 
     public boolean isFull(int i, int j) {
-        return wqufNoBack.connected(getIndex(i, j), N * N);
+        int index = getIndex(i, j);
+        return grid.get(index) && (status[uf.find(index)] & TOP) != 0;
     }
 
     public int numberOfOpenSites() {
         return openSitesNumber;
     }
 
+    // numberOfOpenSites recounted from the grid itself, 64 sites per word
+    public int openedCount() {
+        return grid.count();
+    }
+
     public boolean percolates() {
-        return wquf.connected(N * N, N * N + 1);
+        return percolates;
     }
 
     private int getIndex(int i, int j) {
@@ -82,7 +206,7 @@ public class Percolation {
     }
 
     private boolean testOpen(int i, int j) {
-        return !(i <= 0 || i > N || j <= 0 || j > N) && grid[getIndex(i, j)] == 1;
+        return !(i <= 0 || i > N || j <= 0 || j > N) && grid.get((i - 1) * N + j - 1);
     }
 
 //    public static void main(String[] args) {
@@ -0,0 +1,103 @@
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+
+/**
+ * Renders a Percolation system into an image without a display, with the
+ * colors of PercolationVisualizer: full sites light blue, open ones white,
+ * blocked ones black, site (1, 1) in the upper left-hand corner.
+ *
+ * Pixels are written straight into the int raster of one reused
+ * BufferedImage: one pixel row per row of sites is filled and then copied
+ * scale - 1 times. Site states come from a single pass over the system.
+ */
+public class PercolationRenderer {
+    private static final int BLOCKED = 0x000000;
+    private static final int OPEN = 0xffffff;
+    private static final int FULL = 0x67c6f3;   // StdDraw.BOOK_LIGHT_BLUE
+
+    private final int N;
+    private final int scale;
+    private final byte[] states;
+    private final BufferedImage image;
+    private final int[] pixels;
+
+    public PercolationRenderer(int N, int scale) {
+        if (N <= 0 || scale <= 0) {
+            throw new IllegalArgumentException("N and scale must be > 0");
+        }
+        if ((long) N * scale * N * scale > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("image is too large");
+        }
+        this.N = N;
+        this.scale = scale;
+        states = new byte[N * N];
+        image = new BufferedImage(N * scale, N * scale, BufferedImage.TYPE_INT_RGB);
+        pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    // the returned image is reused by the next call
+    public BufferedImage render(Percolation perc) {
+        perc.fillStates(states);
+        int width = N * scale;
+        for (int i = 0; i < N; ++i) {
+            int rowStart = i * scale * width;
+            int pixel = rowStart;
+            for (int j = 0; j < N; ++j) {
+                byte state = states[i * N + j];
+                int color = state == 2 ? FULL : state == 1 ? OPEN : BLOCKED;
+                for (int k = 0; k < scale; ++k) {
+                    pixels[pixel++] = color;
+                }
+            }
+            for (int k = 1; k < scale; ++k) {
+                System.arraycopy(pixels, rowStart, pixels, rowStart + k * width, width);
+            }
+        }
+        return image;
+    }
+
+    public void write(Percolation perc, File file) throws IOException {
+        ImageIO.write(render(perc), "png", file);
+    }
+
+    // replays the trace and writes frame-000000.png, ... into dir after every
+    // every-th opened site and after the last one; returns the number of frames
+    public int renderTrace(Trace trace, int every, File dir) throws IOException {
+        if (trace.size() != N) {
+            throw new IllegalArgumentException("trace is for a different N");
+        }
+        if (every <= 0) {
+            throw new IllegalArgumentException("every must be > 0");
+        }
+        Percolation perc = new Percolation(N);
+        int[] sites = trace.sites();
+        int frames = 0;
+        write(perc, frame(dir, frames++));
+        for (int k = 0; k < sites.length; ++k) {
+            perc.open(sites[k] / N + 1, sites[k] % N + 1);
+            if ((k + 1) % every == 0 || k == sites.length - 1) {
+                write(perc, frame(dir, frames++));
+            }
+        }
+        return frames;
+    }
+
+    private static File frame(File dir, int index) {
+        return new File(dir, String.format("frame-%06d.png", index));
+    }
+
+    // java PercolationRenderer input.txt every scale outdir
+    public static void main(String[] args) throws IOException {
+        Trace trace = Trace.read(args[0]);
+        File dir = new File(args[3]);
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("cannot create " + dir);
+        }
+        PercolationRenderer renderer = new PercolationRenderer(trace.size(), Integer.parseInt(args[2]));
+        int frames = renderer.renderTrace(trace, Integer.parseInt(args[1]), dir);
+        System.out.println(String.valueOf(frames) + " frames written to " + dir);
+    }
+}
@@ -2,65 +2,137 @@
  * Created by oleg on 2/14/16.
  */
 
-import edu.princeton.cs.algs4.StdRandom;
-import edu.princeton.cs.algs4.StdStats;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 
 public class PercolationStats {
+    // trials run per parallel batch when stopping early; fixed so that
+    // the result for a seed doesn't depend on the size of the pool
+    private static final int BATCH = 64;
 
-    private int T;
-    private double[] x;
-
+    private RunningStats stats;
 
     public PercolationStats(int N, int T) {
         if (N <= 0 || T <= 0) {
             throw new IllegalArgumentException("N and T must be > 0");
         }
 
-        this.T = T;
-        x = new double[T];
+        stats = new RunningStats();
 
-        int i, j, openedSites;
-        int[][] grid;
+        // sites[openedSites..] holds the sites that are still blocked, so each
+        // step is one draw of a Fisher-Yates shuffle and never hits an open site;
+        // the array is reused as is, any starting order shuffles just as well
+        int[] sites = Shuffle.identity(N * N);
 
         for (int t = 0; t < T; ++t) {
-
             Percolation perc = new Percolation(N);
 
-            grid = new int[N][N];
-            openedSites = 0;
+            int openedSites = 0;
             while (!perc.percolates()) {
-                do {
-                    i = StdRandom.uniform(1, N + 1);
-                    j = StdRandom.uniform(1, N + 1);
-                } while (grid[i - 1][j - 1] == 1);
-                grid[i - 1][j - 1] = 1;
-                perc.open(i, j);
+                int site = Shuffle.next(sites, openedSites);
+                perc.open(site / N + 1, site % N + 1);
                 ++openedSites;
             }
 
-            x[t] = (double) openedSites / (N * N);
+            stats.add((double) openedSites / (N * N));
         }
     }
 
+    // runs the trials in parallel on the common pool, reproducible for a given seed
+    public PercolationStats(int N, int T, long seed) {
+        this(N, T, seed, ForkJoinPool.commonPool());
+    }
+
+    public PercolationStats(int N, int T, long seed, ForkJoinPool pool) {
+        if (N <= 0 || T <= 0) {
+            throw new IllegalArgumentException("N and T must be > 0");
+        }
+
+        stats = ParallelTrials.stats(T, seed, pool, random -> (double) trial(N, random) / (N * N));
+    }
+
+    // runs batches of trials until the 95% confidence interval is at most
+    // halfWidth on either side of the mean, or maxTrials trials have run
+    public PercolationStats(int N, double halfWidth, int maxTrials, long seed) {
+        this(N, halfWidth, maxTrials, seed, ForkJoinPool.commonPool());
+    }
+
+    public PercolationStats(int N, double halfWidth, int maxTrials, long seed, ForkJoinPool pool) {
+        if (N <= 0 || maxTrials <= 0) {
+            throw new IllegalArgumentException("N and maxTrials must be > 0");
+        }
+        if (!(halfWidth > 0)) {
+            throw new IllegalArgumentException("halfWidth must be > 0");
+        }
+
+        stats = new RunningStats();
+
+        SplittableRandom seeds = new SplittableRandom(seed);
+        while (stats.count() < maxTrials) {
+            int batch = (int) Math.min(BATCH, maxTrials - stats.count());
+            stats.merge(ParallelTrials.stats(batch, seeds.nextLong(), pool,
+                                             random -> (double) trial(N, random) / (N * N)));
+            if (stats.count() > 1 && stats.halfWidth() <= halfWidth) {
+                break;
+            }
+        }
+    }
+
+    // number of sites opened in random order until the system percolates;
+    // the order is shuffled a row's worth of sites at a time and opened with
+    // openAll, so the trial stops with the step that made the system percolate
+    static int trial(int N, SplittableRandom random) {
+        Percolation perc = new Percolation(N);
+
+        int[] sites = Shuffle.identity(N * N);
+        for (int from = 0; from < sites.length; from += N) {
+            Shuffle.shuffle(sites, from, from + N, random);
+            int step = perc.openAll(sites, from, from + N);
+            if (step >= 0) {
+                return step + 1;
+            }
+        }
+        throw new IllegalStateException("system with every site open does not percolate");
+    }
+
+    public int trials() {
+        return (int) stats.count();
+    }
+
     public double mean() {
-        return StdStats.mean(x);
+        return stats.mean();
     }
 
     public double stddev() {
-        return StdStats.stddev(x);
+        return stats.stddev();
     }
 
     public double confidenceLo() {
-        return StdStats.mean(x) - 1.96 * StdStats.stddev(x) / Math.sqrt(T);
+        return stats.mean() - stats.halfWidth();
     }
 
     public double confidenceHi() {
-        return StdStats.mean(x) + 1.96 * StdStats.stddev(x) / Math.sqrt(T);
+        return stats.mean() + stats.halfWidth();
     }
 
     public static void main(String[] args) {
-        PercolationStats percStats = new PercolationStats(Integer.parseInt(args[0]),
-                                                          Integer.parseInt(args[1]));
+        PercolationStats percStats;
+        if (args.length > 3) {
+            percStats = new PercolationStats(Integer.parseInt(args[0]),
+                                             Double.parseDouble(args[1]),
+                                             Integer.parseInt(args[2]),
+                                             Long.parseLong(args[3]));
+        }
+        else if (args.length > 2) {
+            percStats = new PercolationStats(Integer.parseInt(args[0]),
+                                             Integer.parseInt(args[1]),
+                                             Long.parseLong(args[2]));
+        }
+        else {
+            percStats = new PercolationStats(Integer.parseInt(args[0]),
+                                             Integer.parseInt(args[1]));
+        }
+        System.out.println("trials: " + String.valueOf(percStats.trials()));
         System.out.println("mean: " + String.valueOf(percStats.mean()));
         System.out.println("stddev: " + String.valueOf(percStats.stddev()));
         System.out.println("95% confidence interval: " + String.valueOf(percStats.confidenceLo())
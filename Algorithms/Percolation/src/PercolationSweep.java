@@ -0,0 +1,104 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Percolation probability as a function of the open fraction, from one
+ * pass per trial (Newman-Ziff).
+ *
+ * A trial opens sites in random order and records the step at which the
+ * system first percolates; that single number tells whether it percolates
+ * with n open sites for every n at once. Averaging over the trials gives
+ * the curve P(percolates | n open sites), and convolving it with the
+ * binomial distribution of n gives the estimate for sites open
+ * independently with probability p.
+ */
+public class PercolationSweep {
+    private static final double NEGLIGIBLE = 1e-16;
+
+    private final int sites;
+    private final double[] curve;
+
+    public PercolationSweep(int N, int T, long seed) {
+        this(N, T, seed, ForkJoinPool.commonPool());
+    }
+
+    public PercolationSweep(int N, int T, long seed, ForkJoinPool pool) {
+        if (N <= 0 || T <= 0) {
+            throw new IllegalArgumentException("N and T must be > 0");
+        }
+
+        sites = N * N;
+        int[] steps = ParallelTrials.run(T, seed, pool, random -> PercolationStats.trial(N, random));
+
+        int[] percolatedAt = new int[sites + 1];
+        for (int step : steps) {
+            ++percolatedAt[step];
+        }
+        curve = new double[sites + 1];
+        int percolated = 0;
+        for (int n = 0; n <= sites; ++n) {
+            percolated += percolatedAt[n];
+            curve[n] = (double) percolated / T;
+        }
+    }
+
+    public int sites() {
+        return sites;
+    }
+
+    // probability that the system percolates with n open sites
+    public double probability(int n) {
+        if (n < 0 || n > sites) {
+            throw new IndexOutOfBoundsException("n is out of bounds");
+        }
+        return curve[n];
+    }
+
+    public double[] curve() {
+        return curve.clone();
+    }
+
+    // probability that the system percolates when every site is open with probability p
+    public double probabilityAt(double p) {
+        if (p < 0 || p > 1) {
+            throw new IllegalArgumentException("p must be in [0, 1]");
+        }
+        if (p == 0) {
+            return curve[0];
+        }
+        if (p == 1) {
+            return curve[sites];
+        }
+
+        // binomial weights relative to the one at the mode, walking out both
+        // ways until they vanish, then normalized by their sum
+        int mode = (int) Math.min(sites, Math.floor((sites + 1) * p));
+        double ratio = p / (1 - p);
+        double total = 1;
+        double sum = curve[mode];
+
+        double weight = 1;
+        for (int n = mode; n < sites && weight > NEGLIGIBLE; ++n) {
+            weight *= ratio * (sites - n) / (n + 1);
+            total += weight;
+            sum += weight * curve[n + 1];
+        }
+        weight = 1;
+        for (int n = mode; n > 0 && weight > NEGLIGIBLE; --n) {
+            weight *= n / (ratio * (sites - n + 1));
+            total += weight;
+            sum += weight * curve[n - 1];
+        }
+        return sum / total;
+    }
+
+    // java PercolationSweep N T seed p1 p2 ...
+    public static void main(String[] args) {
+        PercolationSweep sweep = new PercolationSweep(Integer.parseInt(args[0]),
+                                                      Integer.parseInt(args[1]),
+                                                      Long.parseLong(args[2]));
+        for (int k = 3; k < args.length; ++k) {
+            double p = Double.parseDouble(args[k]);
+            System.out.println(String.valueOf(p) + ": " + String.valueOf(sweep.probabilityAt(p)));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Running mean and variance of a stream of samples (Welford's algorithm),
+ * in O(1) memory and without the cancellation of the sum-of-squares formula.
+ */
+public class RunningStats {
+    private long count;
+    private double mean;
+    private double m2;
+
+    public void add(double x) {
+        ++count;
+        double delta = x - mean;
+        mean += delta / count;
+        m2 += delta * (x - mean);
+    }
+
+    // folds in the samples of other, as if they had been added here
+    // (Chan et al.'s pairwise combination of means and squared deviations)
+    public void merge(RunningStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    // sample variance, with n - 1 in the denominator
+    public double variance() {
+        return m2 / (count - 1);
+    }
+
+    public double stddev() {
+        return Math.sqrt(variance());
+    }
+
+    // half-width of the 95% confidence interval for the mean
+    public double halfWidth() {
+        return 1.96 * stddev() / Math.sqrt(count);
+    }
+}
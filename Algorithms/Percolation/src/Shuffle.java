@@ -0,0 +1,51 @@
+import java.util.SplittableRandom;
+
+import edu.princeton.cs.algs4.StdRandom;
+
+/**
+ * Fisher-Yates shuffle taken one step at a time.
+ *
+ * Step k swaps a random item of items[k..] into position k, so after k
+ * steps the first k items are a uniform random choice in random order.
+ * Trials that stop once the system percolates only pay for the steps
+ * they use.
+ */
+public final class Shuffle {
+
+    private Shuffle() {
+    }
+
+    // the items 0, 1, ..., size - 1 in order
+    public static int[] identity(int size) {
+        int[] items = new int[size];
+        for (int k = 0; k < size; ++k) {
+            items[k] = k;
+        }
+        return items;
+    }
+
+    // takes step k and returns the item it placed at position k
+    public static int next(int[] items, int k, SplittableRandom random) {
+        int r = random.nextInt(k, items.length);
+        int item = items[r];
+        items[r] = items[k];
+        items[k] = item;
+        return item;
+    }
+
+    // same, drawing from StdRandom
+    public static int next(int[] items, int k) {
+        int r = StdRandom.uniform(k, items.length);
+        int item = items[r];
+        items[r] = items[k];
+        items[k] = item;
+        return item;
+    }
+
+    // takes steps from..to - 1
+    public static void shuffle(int[] items, int from, int to, SplittableRandom random) {
+        for (int k = from; k < to; ++k) {
+            next(items, k, random);
+        }
+    }
+}
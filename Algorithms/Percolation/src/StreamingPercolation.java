@@ -0,0 +1,76 @@
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * Percolation check for a fixed N-by-N grid that is read one row at a time.
+ *
+ * The rows are labelled with HoshenKopelman, which keeps O(N) state, so the
+ * grid never has to fit in memory. The answer is the one Percolation would
+ * give after opening every open site of the grid. The pass stops early as
+ * soon as no cluster of the current row reaches the top.
+ */
+public class StreamingPercolation {
+
+    // fills sites with the open flags of the given 0-based row
+    public interface RowSource {
+        void fill(int row, boolean[] sites) throws IOException;
+    }
+
+    private StreamingPercolation() {
+    }
+
+    public static boolean percolates(int N, RowSource rows) throws IOException {
+        if (N <= 0) {
+            throw new IllegalArgumentException("N must be > 0");
+        }
+        HoshenKopelman hk = new HoshenKopelman(N, false);
+        boolean[] sites = new boolean[N];
+        for (int i = 0; i < N; ++i) {
+            rows.fill(i, sites);
+            hk.addRow(sites);
+            if (!hk.touchesTop()) {
+                return false;
+            }
+        }
+        hk.finish();
+        return hk.percolates();
+    }
+
+    // a file with N followed by N * N zeros and ones, row by row
+    public static boolean percolates(String path) throws IOException {
+        try (MappedIntReader in = new MappedIntReader(path)) {
+            int N = in.nextInt();
+            return percolates(N, (row, sites) -> {
+                for (int j = 0; j < sites.length; ++j) {
+                    sites[j] = in.nextInt() != 0;
+                }
+            });
+        }
+    }
+
+    // every site is open with probability p, independently, reproducible for a seed
+    public static RowSource random(double p, long seed) {
+        if (p < 0 || p > 1) {
+            throw new IllegalArgumentException("p must be in [0, 1]");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        return (row, sites) -> {
+            for (int j = 0; j < sites.length; ++j) {
+                sites[j] = random.nextDouble() < p;
+            }
+        };
+    }
+
+    // java StreamingPercolation grid.txt, or java StreamingPercolation N p seed
+    public static void main(String[] args) throws IOException {
+        boolean percolates;
+        if (args.length > 1) {
+            percolates = percolates(Integer.parseInt(args[0]),
+                                    random(Double.parseDouble(args[1]), Long.parseLong(args[2])));
+        }
+        else {
+            percolates = percolates(args[0]);
+        }
+        System.out.println("Percolates: " + String.valueOf(percolates));
+    }
+}
@@ -0,0 +1,144 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * An N-by-N percolation system and the order its sites get opened in.
+ *
+ * Sites are kept as flat indices (i - 1) * N + (j - 1), ready for
+ * Percolation.openAll. A trace is read either from the text format of the
+ * tests directory (N followed by i j pairs) or from a binary format:
+ * the magic number, N, the number of sites and then the sites, all as
+ * big-endian ints.
+ */
+public class Trace {
+    private static final int MAGIC = 0x50545243;   // "PTRC"
+    private static final int HEADER_INTS = 3;
+    private static final int WINDOW_INTS = 1 << 24;
+
+    private final int N;
+    private final int[] sites;
+
+    public Trace(int N, int[] sites) {
+        if (N <= 0) {
+            throw new IllegalArgumentException("N must be > 0");
+        }
+        this.N = N;
+        this.sites = sites;
+    }
+
+    public int size() {
+        return N;
+    }
+
+    public int[] sites() {
+        return sites;
+    }
+
+    // reads either format, telling them apart by the magic number
+    public static Trace read(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(4);
+            while (head.hasRemaining() && channel.read(head) != -1) {
+                continue;
+            }
+            if (!head.hasRemaining() && head.getInt(0) == MAGIC) {
+                return readBinary(channel);
+            }
+        }
+        return readText(path);
+    }
+
+    public static Trace readText(String path) throws IOException {
+        try (MappedIntReader in = new MappedIntReader(path)) {
+            int N = in.nextInt();
+            if (N <= 0) {
+                throw new IllegalArgumentException("N must be > 0");
+            }
+            int[] sites = new int[16];
+            int count = 0;
+            while (in.hasNext()) {
+                int i = in.nextInt();
+                int j = in.nextInt();
+                if (i <= 0 || i > N || j <= 0 || j > N) {
+                    throw new IndexOutOfBoundsException("i or j is out of bounds");
+                }
+                if (count == sites.length) {
+                    sites = Arrays.copyOf(sites, 2 * count);
+                }
+                sites[count++] = (i - 1) * N + (j - 1);
+            }
+            return new Trace(N, Arrays.copyOf(sites, count));
+        }
+    }
+
+    public static Trace readBinary(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            return readBinary(channel);
+        }
+    }
+
+    public void writeBinary(String path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(N);
+            out.writeInt(sites.length);
+            for (int site : sites) {
+                out.writeInt(site);
+            }
+        }
+    }
+
+    private static Trace readBinary(FileChannel channel) throws IOException {
+        if (channel.size() < 4 * HEADER_INTS) {
+            throw new IOException("truncated binary trace");
+        }
+        IntBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, 4 * HEADER_INTS).asIntBuffer();
+        if (header.get(0) != MAGIC) {
+            throw new IOException("not a binary trace");
+        }
+        int N = header.get(1);
+        int count = header.get(2);
+        if (N <= 0 || count < 0 || channel.size() < 4L * (HEADER_INTS + (long) count)) {
+            throw new IOException("malformed binary trace");
+        }
+
+        int[] sites = new int[count];
+        for (int done = 0; done < count; ) {
+            int length = Math.min(WINDOW_INTS, count - done);
+            long offset = 4L * (HEADER_INTS + (long) done);
+            channel.map(FileChannel.MapMode.READ_ONLY, offset, 4L * length)
+                   .asIntBuffer()
+                   .get(sites, done, length);
+            done += length;
+        }
+        for (int site : sites) {
+            if (site < 0 || site >= N * N) {
+                throw new IndexOutOfBoundsException("site index is out of bounds");
+            }
+        }
+        return new Trace(N, sites);
+    }
+
+    // java Trace input.txt [output.bin]: replays a trace and optionally converts it
+    public static void main(String[] args) throws IOException {
+        Trace trace = Trace.read(args[0]);
+        Percolation perc = new Percolation(trace.size());
+        int step = perc.openAll(trace.sites());
+        System.out.println("Percolates: " + String.valueOf(perc.percolates())
+                           + (step >= 0 ? " after " + String.valueOf(step + 1) + " sites" : ""));
+        // a trace may repeat sites, so count the distinct ones from the grid
+        System.out.println("Open sites: " + String.valueOf(perc.openedCount()));
+        if (args.length > 1) {
+            trace.writeBinary(args[1]);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * N-by-N sites where each one touches six others: the square lattice
+ * neighbors plus the up-right and down-left diagonals. Site (i, j) is
+ * (i - 1) * N + (j - 1), with row 1 on top as in Percolation.
+ */
+public class TriangularLattice implements Lattice {
+    private final int N;
+
+    public TriangularLattice(int N) {
+        if (N <= 0) {
+            throw new IllegalArgumentException("N must be > 0");
+        }
+        this.N = N;
+    }
+
+    public int sites() {
+        return N * N;
+    }
+
+    public int maxDegree() {
+        return 6;
+    }
+
+    public int neighbors(int site, int[] out) {
+        int i = site / N;
+        int j = site % N;
+        int count = 0;
+        if (i > 0) {
+            out[count++] = site - N;
+            if (j < N - 1) {
+                out[count++] = site - N + 1;
+            }
+        }
+        if (i < N - 1) {
+            out[count++] = site + N;
+            if (j > 0) {
+                out[count++] = site + N - 1;
+            }
+        }
+        if (j > 0) {
+            out[count++] = site - 1;
+        }
+        if (j < N - 1) {
+            out[count++] = site + 1;
+        }
+        return count;
+    }
+
+    public boolean isTop(int site) {
+        return site < N;
+    }
+
+    public boolean isBottom(int site) {
+        return site >= N * (N - 1);
+    }
+}
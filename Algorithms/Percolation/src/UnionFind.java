@@ -0,0 +1,12 @@
+/**
+ * Minimal union-find contract used by the percolation classes,
+ * so the backing implementation can be swapped and compared.
+ */
+public interface UnionFind {
+
+    int find(int p);
+
+    boolean connected(int p, int q);
+
+    void union(int p, int q);
+}
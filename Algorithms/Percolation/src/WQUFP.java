@@ -1,20 +1,27 @@
 /**
  * Created by oleg on 2/14/16.
  */
-public class WQUFP {
-    private int[] id;
-    private int[] sz;
+
+/**
+ * Weighted quick-union with path halving.
+ *
+ * Trees are linked by rank rather than by size; ranks never exceed
+ * log2(N), so a byte per site is enough.
+ */
+public class WQUFP implements UnionFind {
+    private final int[] id;
+    private final byte[] rank;
 
     public WQUFP(int N) {
         id = new int[N];
-        sz = new int[N];
+        rank = new byte[N];
         for (int i = 0; i < N; ++i) {
             id[i] = i;
-            sz[i] = 1;
         }
     }
 
-    private int root(int i) {
+    public int find(int i) {
+        int[] id = this.id;
         while (i != id[i]) {
             id[i] = id[id[i]];
             i = id[i];
@@ -23,22 +30,24 @@ public class WQUFP {
     }
 
     public boolean connected(int p, int q) {
-        return root(p) == root(q);
+        return p == q || find(p) == find(q);
     }
 
     public void union(int p, int q) {
-        int i = root(p);
-        int j = root(q);
+        int i = find(p);
+        int j = find(q);
         if (i == j) {
             return;
         }
-        if (sz[i] >= sz[j]) {
+        if (rank[i] > rank[j]) {
             id[j] = i;
-            sz[i] += sz[j];
         }
-        else {
+        else if (rank[i] < rank[j]) {
             id[i] = j;
-            sz[j] += sz[i];
+        }
+        else {
+            id[j] = i;
+            ++rank[i];
         }
     }
 }
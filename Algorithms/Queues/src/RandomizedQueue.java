@@ -1,8 +1,6 @@
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
-import edu.princeton.cs.algs4.StdRandom;
-
 public class RandomizedQueue<Item> implements Iterable<Item>
 {
     private Item[] items;
@@ -0,0 +1,56 @@
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+import percolation.bench.Targets;
+
+/**
+ * Bridges the benchmarks in percolation.bench to the default-package classes.
+ */
+public class PercolationTargets implements Targets {
+
+    public int[] order(int n, long seed) {
+        int[] sites = Shuffle.identity(n * n);
+        Shuffle.shuffle(sites, 0, sites.length, new SplittableRandom(seed));
+        return sites;
+    }
+
+    public void unionAll(String unionFind, int n, int[] order) {
+        UnionFind uf = factory(unionFind).apply(n * n);
+        for (int site : order) {
+            if (site % n != n - 1) {
+                uf.union(site, site + 1);
+            }
+            if (site / n != n - 1) {
+                uf.union(site, site + n);
+            }
+        }
+    }
+
+    public int percolate(String unionFind, int n, int[] order) {
+        // opens every site, not just up to percolation as openAll does, so the
+        // benchmark keeps measuring the same full sweep
+        Percolation perc = new Percolation(n, factory(unionFind));
+        int step = -1;
+        for (int k = 0; k < order.length; ++k) {
+            perc.open(order[k] / n + 1, order[k] % n + 1);
+            if (step < 0 && perc.percolates()) {
+                step = k;
+            }
+        }
+        return step;
+    }
+
+    public double stats(int n, int trials, long seed) {
+        return new PercolationStats(n, trials, seed).mean();
+    }
+
+    private static IntFunction<UnionFind> factory(String unionFind) {
+        if (unionFind.equals("algs4")) {
+            return AlgsUnionFind::new;
+        }
+        if (unionFind.equals("wqufp")) {
+            return WQUFP::new;
+        }
+        throw new IllegalArgumentException("unknown union-find " + unionFind);
+    }
+}
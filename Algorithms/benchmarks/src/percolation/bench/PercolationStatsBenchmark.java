@@ -0,0 +1,44 @@
+package percolation.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full PercolationStats runs with a fixed seed, trials spread over the common pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PercolationStatsBenchmark {
+    @Param({"100", "1000", "4000"})
+    private int n;
+
+    @Param({"16"})
+    private int trials;
+
+    private Targets targets;
+
+    @Setup
+    public void setUp() {
+        targets = Targets.load();
+    }
+
+    @Benchmark
+    public double stats() {
+        return targets.stats(n, trials, 42);
+    }
+}
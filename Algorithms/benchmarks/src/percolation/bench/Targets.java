@@ -0,0 +1,31 @@
+package percolation.bench;
+
+/**
+ * The Percolation module lives in the default package, which named packages
+ * cannot import, and JMH refuses benchmarks in the default package. The
+ * benchmarks therefore call it through this interface, implemented by the
+ * default-package PercolationTargets and loaded once per trial.
+ */
+public interface Targets {
+
+    // seeded random order of the n * n sites, as flat indices
+    int[] order(int n, long seed);
+
+    // unions every site, in order, with its right and lower neighbors
+    void unionAll(String unionFind, int n, int[] order);
+
+    // opens all n * n sites in order on a fresh Percolation, returns the percolation step
+    int percolate(String unionFind, int n, int[] order);
+
+    // mean threshold of new PercolationStats(n, trials, seed)
+    double stats(int n, int trials, long seed);
+
+    static Targets load() {
+        try {
+            return (Targets) Class.forName("PercolationTargets").getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("PercolationTargets is not on the classpath", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package percolation.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 2 * n^2 unions on a fresh n^2-site union-find, in a fixed random order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class UnionFindBenchmark {
+    @Param({"100", "1000", "4000"})
+    private int n;
+
+    @Param({"algs4", "wqufp"})
+    private String unionFind;
+
+    private Targets targets;
+    private int[] order;
+
+    @Setup
+    public void setUp() {
+        targets = Targets.load();
+        order = targets.order(n, 42);
+    }
+
+    @Benchmark
+    public void unionAll() {
+        targets.unionAll(unionFind, n, order);
+    }
+}